@@ -12,12 +12,14 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.List;
 import java.util.Set;
 
 @SpringBootApplication
 @EnableConfigurationProperties(RSAKeyProperties.class)
+@EnableScheduling
 public class CooksCornerApplication {
 
     public static void main(String[] args) {
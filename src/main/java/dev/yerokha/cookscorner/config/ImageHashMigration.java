@@ -0,0 +1,45 @@
+package dev.yerokha.cookscorner.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Images uploaded before uploads were coalesced can share a hash, which would make creating the
+// unique hash index fail. Before the index is created, every recipe and user pointing at a duplicate
+// is moved to one surviving row per hash and the other rows are deleted. The survivor is the oldest
+// READY row, or the oldest row when none is READY. Every step is a no-op once the data is clean, so
+// this runs on each startup, before the web server accepts uploads.
+@Component
+public class ImageHashMigration {
+
+    private static final String SURVIVOR = "(SELECT s.image_id FROM image s WHERE s.hash = %s.hash " +
+            "ORDER BY CASE WHEN s.status IS NULL OR s.status = 'READY' THEN 0 ELSE 1 END, s.image_id LIMIT 1)";
+    private static final String DUPLICATE_IDS = "SELECT d.image_id FROM image d " +
+            "WHERE d.hash IS NOT NULL AND d.image_id <> " + SURVIVOR.formatted("d");
+    private static final String REPOINT = "UPDATE %1$s SET image_id = " +
+            "(SELECT " + SURVIVOR.formatted("d") + " FROM image d WHERE d.image_id = %1$s.image_id) " +
+            "WHERE image_id IN (" + DUPLICATE_IDS + ")";
+    private static final String DELETE_DUPLICATES = "DELETE FROM image WHERE image_id IN (" + DUPLICATE_IDS + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImageHashMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void migrate() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(REPOINT.formatted("recipe"));
+            jdbcTemplate.update(REPOINT.formatted("users"));
+            jdbcTemplate.update(DELETE_DUPLICATES);
+            jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS image_hash_uk ON image (hash)");
+            // the unique index serves the hash lookups of the old one
+            jdbcTemplate.execute("DROP INDEX IF EXISTS image_hash_idx");
+        });
+    }
+}
@@ -1,15 +1,16 @@
 package dev.yerokha.cookscorner.config;
 
+import dev.yerokha.cookscorner.service.AccessTokenCache;
 import dev.yerokha.cookscorner.service.TokenService;
-import dev.yerokha.cookscorner.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,11 +25,13 @@ import static dev.yerokha.cookscorner.util.TokenEncryptionUtil.decryptToken;
 public class TokenAuthenticationFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
-    private final UserService userService;
+    private final AccessTokenCache accessTokenCache;
+    private final JwtAuthenticationConverter jwtAuthenticationConverter;
 
-    public TokenAuthenticationFilter(TokenService tokenService, UserService userService) {
+    public TokenAuthenticationFilter(TokenService tokenService, AccessTokenCache accessTokenCache, JwtAuthenticationConverter jwtAuthenticationConverter) {
         this.tokenService = tokenService;
-        this.userService = userService;
+        this.accessTokenCache = accessTokenCache;
+        this.jwtAuthenticationConverter = jwtAuthenticationConverter;
     }
 
     @Override
@@ -41,42 +44,38 @@ public class TokenAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        final String email;
+        final String tokenValue = accessToken.substring(7);
+        final long stamp = accessTokenCache.stamp();
+        Jwt jwt = accessTokenCache.get(tokenValue);
 
-        try {
-            email = tokenService.getEmailFromToken(accessToken);
-        } catch (Exception e) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.getWriter().write("Invalid token " + e.getMessage());
-            return;
-        }
-
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(email);
+        if (jwt == null) {
+            try {
+                jwt = tokenService.decodeToken(accessToken);
+            } catch (Exception e) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.getWriter().write("Invalid token " + e.getMessage());
+                return;
+            }
 
-            if (userDetails != null) {
-                String key = "access_token:" + email;
+            if (!isActiveAccessToken(jwt.getSubject(), tokenValue)) {
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
 
-                if (containsKey(key)) {
-                    String cachedToken = decryptToken((String) getValue(key));
-                    final String tokenValue = accessToken.substring(7);
+            accessTokenCache.put(tokenValue, jwt, stamp);
+        }
 
-                    if (tokenValue.equals(cachedToken)) {
-                        UsernamePasswordAuthenticationToken authenticationToken =
-                                new UsernamePasswordAuthenticationToken(userDetails, null);
-                        authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                        SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                    } else {
-                        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                        return;
-                    }
-                } else {
-                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                    return;
-                }
-            }
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            AbstractAuthenticationToken authenticationToken = jwtAuthenticationConverter.convert(jwt);
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    private static boolean isActiveAccessToken(String email, String tokenValue) {
+        String key = "access_token:" + email;
+        return email != null && containsKey(key) && tokenValue.equals(decryptToken((String) getValue(key)));
+    }
 }
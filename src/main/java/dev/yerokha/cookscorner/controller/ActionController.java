@@ -1,18 +1,24 @@
 package dev.yerokha.cookscorner.controller;
 
+import dev.yerokha.cookscorner.dto.ActionResult;
+import dev.yerokha.cookscorner.dto.BatchActionRequest;
 import dev.yerokha.cookscorner.service.ActionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 import static dev.yerokha.cookscorner.service.TokenService.getUserIdFromAuthToken;
 
 @Tag(name = "Actions", description = "Endpoints for interacting with recipes and comments")
@@ -50,6 +56,21 @@ public class ActionController {
 
         return ResponseEntity.ok("Action success");
     }
+
+    @Operation(summary = "Batch interaction", description = "Apply many action codes in one transaction, " +
+            "e.g. to sync offline likes and bookmarks. Each object may appear at most once per like/bookmark. " +
+            "Result status per item is CHANGED, UNCHANGED, NOT_FOUND or INVALID", tags = {"action", "put"},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Actions are applied, see per item status"),
+                    @ApiResponse(responseCode = "400", description = "Empty, too large or duplicate batch"),
+                    @ApiResponse(responseCode = "401", description = "User is unauthorized")
+            }
+    )
+    @PutMapping("/batch")
+    public ResponseEntity<List<ActionResult>> makeActions(@RequestBody @Valid BatchActionRequest request,
+                                                          Authentication authentication) {
+        return ResponseEntity.ok(actionService.interactAll(request.actions(), getUserIdFromAuthToken(authentication)));
+    }
 }
 
 
@@ -83,5 +104,6 @@ public class ActionController {
 
 
 
+
 
 
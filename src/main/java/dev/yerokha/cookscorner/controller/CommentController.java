@@ -11,6 +11,7 @@ import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -66,15 +67,21 @@ public class CommentController {
                     @ApiResponse(responseCode = "200", description = "Success"),
                     @ApiResponse(responseCode = "404", description = "Object does not exist", content = @Content)
             },
-            parameters = @Parameter(
-                    name = "objectId",
-                    description = "ID of recipe. It's called object because as project grows " +
-                            "there possibly can be another objects with comments",
-                    required = true,
-                    in = ParameterIn.PATH)
+            parameters = {
+                    @Parameter(
+                            name = "objectId",
+                            description = "ID of recipe. It's called object because as project grows " +
+                                    "there possibly can be another objects with comments",
+                            required = true,
+                            in = ParameterIn.PATH),
+                    @Parameter(name = "page", description = "Page number", example = "0"),
+                    @Parameter(name = "size", description = "Page size", example = "5"),
+                    @Parameter(name = "cursor", description = "Keyset mode. Pass an empty value for the first " +
+                            "slice, then the returned nextCursor. Page is ignored")
+            }
     )
     @GetMapping("/{objectId}")
-    public ResponseEntity<Page<Comment>> getComments(@PathVariable Long objectId,
+    public ResponseEntity<Slice<Comment>> getComments(@PathVariable Long objectId,
                                                      @RequestParam(required = false) Map<String, String> params,
                                                      Authentication authentication) {
         return ResponseEntity.ok(commentService.getComments(
@@ -0,0 +1,77 @@
+package dev.yerokha.cookscorner.controller;
+
+import dev.yerokha.cookscorner.exception.NotFoundException;
+import dev.yerokha.cookscorner.service.LocalImageStorage;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@Tag(name = "Image", description = "Controller for images kept by the local storage")
+@RestController
+@RequestMapping("/v1/images")
+@ConditionalOnProperty(name = "image.storage", havingValue = "local")
+public class ImageController {
+
+    // only the formats ImageService writes are served, so nothing stored under another name runs in a browser
+    private static final Map<String, MediaType> MEDIA_TYPES = Map.of(
+            ".jpg", MediaType.IMAGE_JPEG,
+            ".png", MediaType.IMAGE_PNG,
+            ".webp", MediaType.parseMediaType("image/webp"));
+
+    private final LocalImageStorage localImageStorage;
+
+    public ImageController(LocalImageStorage localImageStorage) {
+        this.localImageStorage = localImageStorage;
+    }
+
+    @Operation(
+            summary = "Get image", description = "Stream a stored image, supports ETag revalidation and byte ranges",
+            tags = {"image", "get"},
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Image content"),
+                    @ApiResponse(responseCode = "206", description = "Requested byte range"),
+                    @ApiResponse(responseCode = "304", description = "Not modified", content = @Content),
+                    @ApiResponse(responseCode = "404", description = "Image not found", content = @Content)
+            }
+    )
+    @GetMapping("/{key}")
+    public ResponseEntity<Resource> getImage(@PathVariable String key,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        MediaType mediaType = MEDIA_TYPES.get(key.substring(Math.max(0, key.lastIndexOf('.'))));
+        Path path = localImageStorage.find(key)
+                .filter(found -> mediaType != null)
+                .orElseThrow(() -> new NotFoundException("Image not found"));
+        // the key is the content hash, so it doubles as a strong ETag and the file never changes
+        CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+        if (ifNoneMatch != null && ifNoneMatch.contains("\"" + key + "\"")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(key)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(key)
+                .cacheControl(cacheControl)
+                .contentType(mediaType)
+                .body(new FileSystemResource(path));
+    }
+}
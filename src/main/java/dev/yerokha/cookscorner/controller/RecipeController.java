@@ -16,7 +16,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -111,20 +111,32 @@ public class RecipeController {
                             examples = {
                                     @ExampleObject(name = "pasta", value = "pasta"),
                                     @ExampleObject(name = "My", value = "my"),
+                                    @ExampleObject(name = "Following", value = "following"),
                                     @ExampleObject(name = "Soups", value = "category:soups"),
                             }),
                     @Parameter(name = "page", description = "Page number", example = "0"),
-                    @Parameter(name = "size", description = "Page size", example = "12")
+                    @Parameter(name = "size", description = "Page size", example = "12"),
+                    @Parameter(name = "cursor", description = "Keyset mode for the feed without query. Pass an " +
+                            "empty value for the first slice, then the returned nextCursor. Page is ignored"),
+                    @Parameter(name = "sort", description = "Order of the feed without query. \"trending\" ranks " +
+                            "recipes by recent views, likes, bookmarks and comments", example = "trending"),
+                    @Parameter(name = "ingredients", description = "Comma separated ingredients to match recipes " +
+                            "by. Takes precedence over query", example = "egg,flour,milk"),
+                    @Parameter(name = "match", description = "How ingredients are matched: \"all\" (default), " +
+                            "\"any\", or \"missing\" for recipes needing at most maxMissing other ingredients",
+                            example = "missing"),
+                    @Parameter(name = "maxMissing", description = "Ingredients a recipe may need beyond the given " +
+                            "ones in \"missing\" mode", example = "1")
             }
     )
     @GetMapping
-    public ResponseEntity<Page<RecipeDto>> getRecipes(@RequestParam(required = false) Map<String, String> params, Authentication authentication) {
+    public ResponseEntity<Slice<RecipeDto>> getRecipes(@RequestParam(required = false) Map<String, String> params, Authentication authentication) {
 
 
         String query = params.get("query");
 
         Long userIdFromAuthToken = getUserIdFromAuthToken(authentication);
-        if (query != null && (query.equals("my") || query.equals("saved")))
+        if (query != null && (query.equals("my") || query.equals("saved") || query.equals("following")))
             if (userIdFromAuthToken == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
             }
@@ -140,11 +152,13 @@ public class RecipeController {
             parameters = {
                     @Parameter(name = "category id", in = ParameterIn.PATH),
                     @Parameter(name = "page", description = "Page number", example = "0"),
-                    @Parameter(name = "size", description = "Page size", example = "12")
+                    @Parameter(name = "size", description = "Page size", example = "12"),
+                    @Parameter(name = "cursor", description = "Keyset mode. Pass an empty value for the first " +
+                            "slice, then the returned nextCursor. Page is ignored")
             }
     )
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<RecipeDto>> getRecipesByCategory(
+    public ResponseEntity<Slice<RecipeDto>> getRecipesByCategory(
             @RequestParam(required = false) Map<String, String> params,
             Authentication authentication,
             @PathVariable Long categoryId) {
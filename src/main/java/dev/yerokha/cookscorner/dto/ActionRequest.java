@@ -0,0 +1,12 @@
+package dev.yerokha.cookscorner.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public record ActionRequest(
+        byte actionId,
+        byte objectTypeId,
+        @NotNull @Min(1)
+        Long objectId
+) {
+}
@@ -0,0 +1,11 @@
+package dev.yerokha.cookscorner.dto;
+
+import dev.yerokha.cookscorner.enums.ActionStatus;
+
+public record ActionResult(
+        byte actionId,
+        byte objectTypeId,
+        Long objectId,
+        ActionStatus status
+) {
+}
@@ -0,0 +1,14 @@
+package dev.yerokha.cookscorner.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BatchActionRequest(
+        @NotNull @NotEmpty @Size(max = 100, message = "Batch must not exceed 100 actions")
+        List<@Valid @NotNull ActionRequest> actions
+) {
+}
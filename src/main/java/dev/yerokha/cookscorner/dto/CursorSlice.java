@@ -0,0 +1,32 @@
+package dev.yerokha.cookscorner.dto;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorSlice<T> extends SliceImpl<T> {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String nextCursor;
+
+    public CursorSlice(List<T> content, Pageable pageable, boolean hasNext, String nextCursor) {
+        super(content, pageable, hasNext);
+        this.nextCursor = nextCursor;
+    }
+
+    public static <T> CursorSlice<T> of(Slice<T> slice, Function<T, String> cursorOf) {
+        List<T> content = slice.getContent();
+        String nextCursor = slice.hasNext() ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorSlice<>(content, slice.getPageable(), slice.hasNext(), nextCursor);
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -20,4 +20,9 @@ public record Recipe(
         Boolean isBookmarked,
         Set<Ingredient> ingredients
 ) {
+
+    public Recipe withViewerState(Boolean isLiked, Boolean isBookmarked) {
+        return new Recipe(recipeId, lastUpdated, title, author, authorId, imageUrl, cookingTimeMinutes, difficulty,
+                description, likes, bookmarks, comments, isLiked, isBookmarked, ingredients);
+    }
 }
@@ -1,8 +1,11 @@
 package dev.yerokha.cookscorner.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
 public class RecipeDto {
     private Long recipeId;
     private String title;
@@ -12,14 +15,17 @@ public class RecipeDto {
     private int bookmarks;
     private Boolean isLiked;
     private Boolean isBookmarked;
+    @JsonIgnore
+    private long viewCount;
 
-    public RecipeDto(Long recipeId, String title, String author, String imageUrl, int likes, int bookmarks) {
+    public RecipeDto(Long recipeId, String title, String author, String imageUrl, int likes, int bookmarks, long viewCount) {
         this.recipeId = recipeId;
         this.title = title;
         this.author = author;
         this.imageUrl = imageUrl;
         this.likes = likes;
         this.bookmarks = bookmarks;
+        this.viewCount = viewCount;
     }
 
 
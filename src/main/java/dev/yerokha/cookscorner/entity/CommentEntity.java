@@ -6,6 +6,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -24,7 +25,7 @@ import java.util.Set;
 
 @Data
 @Entity
-@Table(name = "comment")
+@Table(name = "comment", indexes = @Index(name = "comment_recipe_idx", columnList = "recipe_id, comment_id"))
 public class CommentEntity {
 
     @Id
@@ -1,7 +1,11 @@
 package dev.yerokha.cookscorner.entity;
 
+import dev.yerokha.cookscorner.enums.ImageStatus;
+import dev.yerokha.cookscorner.enums.ImageVariant;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -11,13 +15,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "image", indexes = @Index(name = "image_hash_idx", columnList = "hash"))
+@Table(name = "image", indexes = @Index(name = "image_hash_uk", columnList = "hash", unique = true))
 public class Image {
 
     @Id
@@ -28,10 +33,31 @@ public class Image {
     @Column(name = "image_url")
     private String imageUrl;
 
+    @Column(name = "card_url")
+    private String cardUrl;
+
+    @Column(name = "thumbnail_url")
+    private String thumbnailUrl;
+
     @Column(name = "image_name")
     private String imageName;
 
     @Column(name = "hash")
     private String hash;
 
+    @ColumnDefault("'READY'")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", length = 16)
+    private ImageStatus status;
+
+    public String getUrl(ImageVariant variant) {
+        String url = switch (variant) {
+            case THUMBNAIL -> thumbnailUrl;
+            case CARD -> cardUrl;
+            case FULL -> imageUrl;
+        };
+        // images stored before variants existed only have the original
+        return url == null ? imageUrl : url;
+    }
+
 }
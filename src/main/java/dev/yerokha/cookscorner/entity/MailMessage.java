@@ -0,0 +1,64 @@
+package dev.yerokha.cookscorner.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "mail_outbox_due_idx", columnList = "is_failed, next_attempt_at")
+})
+@Data
+public class MailMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "mail_id")
+    private Long mailId;
+
+    @Column(name = "recipient")
+    private String recipient;
+
+    @Column(name = "subject")
+    private String subject;
+
+    @Column(name = "template")
+    private String template;
+
+    @Column(name = "variables", length = 4000)
+    private String variables;
+
+    @Column(name = "attempts")
+    private int attempts = 0;
+
+    @Column(name = "created_at")
+    private Instant createdAt;
+
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "is_failed")
+    private boolean isFailed = false;
+
+    public MailMessage() {
+    }
+
+    public MailMessage(String recipient, String subject, String template, String variables, Instant createdAt) {
+        this.recipient = recipient;
+        this.subject = subject;
+        this.template = template;
+        this.variables = variables;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+}
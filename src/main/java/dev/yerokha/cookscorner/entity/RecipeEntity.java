@@ -9,6 +9,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -20,6 +21,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -32,7 +34,10 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "recipe")
+@Table(name = "recipe", indexes = {
+        @Index(name = "recipe_view_count_idx", columnList = "view_count DESC, recipe_id DESC"),
+        @Index(name = "recipe_category_view_count_idx", columnList = "category_id, view_count DESC, recipe_id DESC")
+})
 public class RecipeEntity {
 
     @Id
@@ -96,6 +101,18 @@ public class RecipeEntity {
     @Column(name = "view_count")
     private long viewCount;
 
+    @ColumnDefault("0")
+    @Column(name = "like_count", updatable = false)
+    private int likeCount;
+
+    @ColumnDefault("0")
+    @Column(name = "bookmark_count", updatable = false)
+    private int bookmarkCount;
+
+    @ColumnDefault("0")
+    @Column(name = "comment_count", updatable = false)
+    private int commentCount;
+
     @Override
     public String toString() {
         return "RecipeEntity{" +
@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -13,7 +14,9 @@ import lombok.Data;
 import java.time.Instant;
 
 @Entity
-@Table(name = "refresh_token")
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "refresh_token_expires_at_idx", columnList = "expires_at")
+})
 @Data
 public class RefreshToken {
 
@@ -25,6 +28,9 @@ public class RefreshToken {
     @Column(name = "token", unique = true, length = 1000)
     private String token;
 
+    @Column(name = "token_digest", unique = true, length = 64)
+    private String tokenDigest;
+
     @ManyToOne
     @JoinColumn(name = "user_id")
     private UserEntity userEntity;
@@ -41,8 +47,8 @@ public class RefreshToken {
     public RefreshToken() {
     }
 
-    public RefreshToken(String token, UserEntity userEntity, Instant issuedAt, Instant expiresAt) {
-        this.token = token;
+    public RefreshToken(String tokenDigest, UserEntity userEntity, Instant issuedAt, Instant expiresAt) {
+        this.tokenDigest = tokenDigest;
         this.userEntity = userEntity;
         this.issuedAt = issuedAt;
         this.expiresAt = expiresAt;
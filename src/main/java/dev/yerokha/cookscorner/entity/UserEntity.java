@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -15,6 +16,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -29,7 +31,9 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "users_follower_count_idx", columnList = "follower_count DESC")
+})
 public class UserEntity implements UserDetails {
 
     @Id
@@ -60,16 +64,12 @@ public class UserEntity implements UserDetails {
     @JoinTable(
             name = "following",
             joinColumns = {@JoinColumn(name = "user_id")},
-            inverseJoinColumns = {@JoinColumn(name = "following_id")}
+            inverseJoinColumns = {@JoinColumn(name = "following_id")},
+            indexes = @Index(name = "following_following_id_idx", columnList = "following_id, user_id")
     )
     private Set<UserEntity> following = new HashSet<>();
 
-    @ManyToMany
-    @JoinTable(
-            name = "followers",
-            joinColumns = {@JoinColumn(name = "user_id")},
-            inverseJoinColumns = {@JoinColumn(name = "follower_id")}
-    )
+    @ManyToMany(mappedBy = "following")
     private Set<UserEntity> followers = new HashSet<>();
 
     @ManyToMany(mappedBy = "bookmarks")
@@ -84,6 +84,18 @@ public class UserEntity implements UserDetails {
     @Column(name = "view_count")
     private long viewCount;
 
+    @ColumnDefault("0")
+    @Column(name = "recipe_count", updatable = false)
+    private int recipeCount;
+
+    @ColumnDefault("0")
+    @Column(name = "follower_count", updatable = false)
+    private int followerCount;
+
+    @ColumnDefault("0")
+    @Column(name = "following_count", updatable = false)
+    private int followingCount;
+
     @Column(name = "is_enabled")
     private boolean enabled;
 
@@ -0,0 +1,5 @@
+package dev.yerokha.cookscorner.enums;
+
+public enum ActionStatus {
+    CHANGED, UNCHANGED, NOT_FOUND, INVALID
+}
@@ -0,0 +1,5 @@
+package dev.yerokha.cookscorner.enums;
+
+public enum ImageStatus {
+    PENDING, READY, FAILED
+}
@@ -0,0 +1,15 @@
+package dev.yerokha.cookscorner.enums;
+
+public enum ImageVariant {
+    THUMBNAIL(160), CARD(480), FULL(1600);
+
+    private final int maxSize;
+
+    ImageVariant(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+}
@@ -0,0 +1,5 @@
+package dev.yerokha.cookscorner.enums;
+
+public enum IngredientMatch {
+    ALL, ANY, MISSING
+}
@@ -0,0 +1,15 @@
+package dev.yerokha.cookscorner.enums;
+
+public enum TrendingSignal {
+    VIEW(1), LIKE(3), BOOKMARK(4), COMMENT(5), NEW_RECIPE(10);
+
+    private final double weight;
+
+    TrendingSignal(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
@@ -4,6 +4,7 @@ import dev.yerokha.cookscorner.dto.Comment;
 import dev.yerokha.cookscorner.entity.CommentEntity;
 import dev.yerokha.cookscorner.entity.Image;
 import dev.yerokha.cookscorner.entity.UserEntity;
+import dev.yerokha.cookscorner.enums.ImageVariant;
 
 public class CommentMapper {
 
@@ -18,7 +19,7 @@ public class CommentMapper {
         boolean deleted = author.isDeleted();
         Long userId = deleted ? null : author.getUserId();
         Image profilePicture = author.getProfilePicture();
-        String imageUrl = deleted ? null : (profilePicture == null ? null : profilePicture.getImageUrl());
+        String imageUrl = deleted ? null : (profilePicture == null ? null : profilePicture.getUrl(ImageVariant.THUMBNAIL));
         String name = deleted ? "Deleted User" : author.getName();
 
         boolean commentDeleted = entity.isDeleted();
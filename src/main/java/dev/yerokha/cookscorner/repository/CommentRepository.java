@@ -3,13 +3,44 @@ package dev.yerokha.cookscorner.repository;
 import dev.yerokha.cookscorner.entity.CommentEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
+
 @Repository
 public interface CommentRepository extends JpaRepository<CommentEntity, Long> {
 
     Page<CommentEntity> findAllByRecipeEntityRecipeIdAndParentCommentIsNull(Long recipeId, Pageable pageable);
 
     Page<CommentEntity> findAllByParentCommentCommentId(Long parentCommentId, Pageable pageable);
+
+    @Query("SELECT c FROM CommentEntity c " +
+            "WHERE c.recipeEntity.recipeId = :recipeId AND c.parentComment IS NULL AND c.commentId > :commentId " +
+            "ORDER BY c.commentId")
+    Slice<CommentEntity> findParentCommentsAfter(Long recipeId, long commentId, Pageable pageable);
+
+    @Query("SELECT c.commentId FROM CommentEntity c WHERE c.commentId IN :commentIds")
+    Set<Long> findExistingIds(Collection<Long> commentIds);
+
+    @Query("SELECT c.commentId FROM CommentEntity c JOIN c.likes u " +
+            "WHERE u.userId = :userId AND c.commentId IN :commentIds")
+    Set<Long> findLikedCommentIds(Long userId, Collection<Long> commentIds);
+
+    // user_comment_likes is mapped with its columns swapped: user_id holds the comment, comment_id the user
+    @Modifying
+    @Query(value = "INSERT INTO user_comment_likes (user_id, comment_id) " +
+            "SELECT c.comment_id, :userId FROM comment c WHERE c.comment_id = :commentId " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertLike(Long commentId, Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_comment_likes WHERE user_id = :commentId AND comment_id = :userId",
+            nativeQuery = true)
+    int deleteLike(Long commentId, Long userId);
 }
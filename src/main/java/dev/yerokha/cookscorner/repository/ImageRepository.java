@@ -1,12 +1,34 @@
 package dev.yerokha.cookscorner.repository;
 
 import dev.yerokha.cookscorner.entity.Image;
+import dev.yerokha.cookscorner.enums.ImageStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface ImageRepository extends JpaRepository<Image, Long> {
     Optional<Image> findByHash(String hashString);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO image (hash, image_name, status) VALUES (:hash, :imageName, 'PENDING') " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertPending(String hash, String imageName);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Image i SET i.status = :status WHERE i.imageId = :imageId AND i.status = :expected")
+    int updateStatus(Long imageId, ImageStatus expected, ImageStatus status);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Image i SET i.imageUrl = :imageUrl, i.cardUrl = :cardUrl, i.thumbnailUrl = :thumbnailUrl, " +
+            "i.status = :status WHERE i.imageId = :imageId")
+    void updateUpload(Long imageId, String imageUrl, String cardUrl, String thumbnailUrl, ImageStatus status);
 }
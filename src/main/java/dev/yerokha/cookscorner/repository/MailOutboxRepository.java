@@ -0,0 +1,28 @@
+package dev.yerokha.cookscorner.repository;
+
+import dev.yerokha.cookscorner.entity.MailMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailMessage, Long> {
+
+    @Query("SELECT m FROM MailMessage m WHERE m.isFailed = false AND m.nextAttemptAt <= :now ORDER BY m.nextAttemptAt")
+    List<MailMessage> findDue(Instant now, Pageable pageable);
+
+    @Query("SELECT COUNT(m) FROM MailMessage m WHERE m.isFailed = false")
+    long countPending();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE MailMessage m SET m.nextAttemptAt = :leaseUntil " +
+            "WHERE m.mailId = :mailId AND m.isFailed = false AND m.nextAttemptAt <= :now")
+    int claim(Long mailId, Instant now, Instant leaseUntil);
+}
@@ -1,29 +1,118 @@
 package dev.yerokha.cookscorner.repository;
 
+import dev.yerokha.cookscorner.dto.RecipeDto;
 import dev.yerokha.cookscorner.entity.RecipeEntity;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 @Repository
 public interface RecipeRepository extends JpaRepository<RecipeEntity, Long> {
 
-    Page<RecipeEntity> findAllByCategoryCategoryId(Long categoryId, Pageable pageable);
+    String RECIPE_CARD = "SELECT new dev.yerokha.cookscorner.dto.RecipeDto(" +
+            "r.recipeId, r.title, u.name, COALESCE(i.cardUrl, i.imageUrl), r.likeCount, r.bookmarkCount, r.viewCount) " +
+            "FROM RecipeEntity r JOIN r.userEntity u LEFT JOIN r.image i";
 
-    Page<RecipeEntity> findByUserEntityUserId(Long userId, Pageable pageable);
+    @Query("SELECT r.recipeId FROM RecipeEntity r WHERE r.userEntity.userId = :userId")
+    List<Long> findIdsByUserId(Long userId);
 
-    Page<RecipeEntity> findByBookmarksUserId(Long userId, Pageable pageable);
+    @Query(value = RECIPE_CARD,
+            countQuery = "SELECT COUNT(r) FROM RecipeEntity r")
+    Page<RecipeDto> findRecipeCards(Pageable pageable);
 
-    Page<RecipeEntity> findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-            String title, String description, Pageable pageable);
+    @Query(value = RECIPE_CARD + " WHERE r.category.categoryId = :categoryId",
+            countQuery = "SELECT COUNT(r) FROM RecipeEntity r WHERE r.category.categoryId = :categoryId")
+    Page<RecipeDto> findRecipeCardsByCategoryId(Long categoryId, Pageable pageable);
 
-    @Modifying
-    @Query("UPDATE RecipeEntity r SET r.viewCount = r.viewCount + 1 WHERE r.recipeId = :recipeId")
-    void incrementViewCount(Long recipeId);
+    @Query(RECIPE_CARD + " WHERE r.viewCount < :viewCount " +
+            "OR (r.viewCount = :viewCount AND r.recipeId < :recipeId) " +
+            "ORDER BY r.viewCount DESC, r.recipeId DESC")
+    Slice<RecipeDto> findRecipeCardsAfter(long viewCount, long recipeId, Pageable pageable);
+
+    @Query(RECIPE_CARD + " WHERE r.category.categoryId = :categoryId " +
+            "AND (r.viewCount < :viewCount OR (r.viewCount = :viewCount AND r.recipeId < :recipeId)) " +
+            "ORDER BY r.viewCount DESC, r.recipeId DESC")
+    Slice<RecipeDto> findRecipeCardsByCategoryIdAfter(Long categoryId, long viewCount, long recipeId, Pageable pageable);
+
+    @Query(value = RECIPE_CARD + " WHERE u.userId = :userId",
+            countQuery = "SELECT COUNT(r) FROM RecipeEntity r WHERE r.userEntity.userId = :userId")
+    Page<RecipeDto> findRecipeCardsByUserId(Long userId, Pageable pageable);
+
+    @Query(value = RECIPE_CARD + " JOIN r.bookmarks b WHERE b.userId = :userId",
+            countQuery = "SELECT COUNT(r) FROM RecipeEntity r JOIN r.bookmarks b WHERE b.userId = :userId")
+    Page<RecipeDto> findBookmarkedRecipeCards(Long userId, Pageable pageable);
+
+    @Query("SELECT r.recipeId FROM RecipeEntity r JOIN r.userEntity u JOIN u.followers f " +
+            "WHERE f.userId = :userId AND u.followerCount BETWEEN :minFollowers AND :maxFollowers " +
+            "ORDER BY r.recipeId DESC")
+    List<Long> findFolloweeRecipeIds(Long userId, int minFollowers, int maxFollowers, Pageable pageable);
+
+    @Query(RECIPE_CARD + " WHERE r.recipeId IN :recipeIds")
+    List<RecipeDto> findRecipeCardsByIds(Collection<Long> recipeIds);
+
+    @Query("SELECT r.recipeId FROM RecipeEntity r WHERE r.recipeId IN :recipeIds")
+    Set<Long> findExistingIds(Collection<Long> recipeIds);
+
+    @Query("SELECT r.recipeId, r.title, r.description FROM RecipeEntity r")
+    List<Object[]> findSearchableRecipes();
+
+    @Query("SELECT ri.recipeEntity.recipeId, i.ingredientName FROM RecipeIngredient ri JOIN ri.ingredientEntity i")
+    List<Object[]> findSearchableIngredients();
 
     @Query("SELECT r.viewCount FROM RecipeEntity r WHERE r.recipeId = :recipeId")
     long getViewCount(long recipeId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_recipe_likes (recipe_id, user_id) " +
+            "SELECT r.recipe_id, :userId FROM recipe r WHERE r.recipe_id = :recipeId " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertLike(Long recipeId, Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_recipe_likes WHERE recipe_id = :recipeId AND user_id = :userId",
+            nativeQuery = true)
+    int deleteLike(Long recipeId, Long userId);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_recipe_bookmarks (recipe_id, user_id) " +
+            "SELECT r.recipe_id, :userId FROM recipe r WHERE r.recipe_id = :recipeId " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertBookmark(Long recipeId, Long userId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_recipe_bookmarks WHERE recipe_id = :recipeId AND user_id = :userId",
+            nativeQuery = true)
+    int deleteBookmark(Long recipeId, Long userId);
+
+    @Modifying
+    @Query("UPDATE RecipeEntity r SET r.likeCount = r.likeCount + :delta WHERE r.recipeId = :recipeId")
+    void updateLikeCount(Long recipeId, int delta);
+
+    @Modifying
+    @Query("UPDATE RecipeEntity r SET r.bookmarkCount = r.bookmarkCount + :delta WHERE r.recipeId = :recipeId")
+    void updateBookmarkCount(Long recipeId, int delta);
+
+    @Modifying
+    @Query("UPDATE RecipeEntity r SET r.commentCount = r.commentCount + :delta WHERE r.recipeId = :recipeId")
+    void updateCommentCount(Long recipeId, int delta);
+
+    @Modifying
+    @Query(value = "UPDATE recipe r SET " +
+            "like_count = (SELECT COUNT(*) FROM user_recipe_likes l WHERE l.recipe_id = r.recipe_id), " +
+            "bookmark_count = (SELECT COUNT(*) FROM user_recipe_bookmarks b WHERE b.recipe_id = r.recipe_id), " +
+            "comment_count = (SELECT COUNT(*) FROM comment c " +
+            "LEFT JOIN comment p ON c.parent_comment_id = p.comment_id " +
+            "WHERE c.recipe_id = r.recipe_id OR p.recipe_id = r.recipe_id)",
+            nativeQuery = true)
+    void reconcileCounters();
 }
@@ -2,16 +2,35 @@ package dev.yerokha.cookscorner.repository;
 
 import dev.yerokha.cookscorner.entity.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    @Query("SELECT rt FROM RefreshToken rt WHERE rt.userEntity.email = :email AND rt.isRevoked = false")
-    List<RefreshToken> findNotRevokedByEmail(String email);
+    @Query("SELECT rt FROM RefreshToken rt WHERE rt.tokenDigest = :tokenDigest AND rt.isRevoked = false")
+    Optional<RefreshToken> findNotRevokedByDigest(String tokenDigest);
 
-}
+    @Query("SELECT rt FROM RefreshToken rt " +
+            "WHERE rt.userEntity.email = :email AND rt.isRevoked = false AND rt.tokenDigest IS NULL")
+    List<RefreshToken> findNotRevokedLegacyByEmail(String email);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.isRevoked = true WHERE rt.isRevoked = false " +
+            "AND rt.userEntity.userId = (SELECT u.userId FROM UserEntity u WHERE u.email = :email)")
+    void revokeAllByEmail(String email);
 
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_token WHERE token_id IN (" +
+            "SELECT token_id FROM refresh_token WHERE expires_at < :now OR is_revoked = true LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteExpiredOrRevoked(Instant now, int batchSize);
+}
@@ -8,23 +8,23 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     Optional<UserEntity> findByEmail(String email);
 
-    @Query("SELECT u FROM UserEntity u " +
-            "WHERE (LOWER(u.name) LIKE LOWER(CONCAT('%', :name, '%')) OR LOWER(u.bio) LIKE LOWER(CONCAT('%', :bio, '%'))) " +
-            "AND u.deleted = false AND u.enabled = true " +
-            "ORDER BY SIZE(u.followers) DESC")
-    Page<UserEntity> findByNameOrBioSortedByFollowersCount(
-            String name, String bio, Pageable pageable);
+    @Query("SELECT u.userId, u.name, u.bio, u.followerCount FROM UserEntity u " +
+            "WHERE u.deleted = false AND u.enabled = true")
+    List<Object[]> findSearchableUsers();
 
     @Query("SELECT u FROM UserEntity u " +
             "WHERE u.deleted = false AND u.enabled = true " +
-            "ORDER BY SIZE(u.followers) DESC")
+            "ORDER BY u.followerCount DESC")
     Page<UserEntity> findAllSortedByFollowersCount(Pageable pageable);
 
     @Modifying
@@ -33,18 +33,61 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     boolean existsByUserIdAndFollowingUserId(Long userId, Long followeeId);
 
+    @Modifying
+    @Query(value = "INSERT INTO following (user_id, following_id) VALUES (:userId, :followeeId) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertFollow(Long userId, Long followeeId);
+
+    @Modifying
+    @Query(value = "DELETE FROM following WHERE user_id = :userId AND following_id = :followeeId",
+            nativeQuery = true)
+    int deleteFollow(Long userId, Long followeeId);
+
+    @Query(value = "SELECT user_id FROM following WHERE following_id = :followeeId AND user_id > :afterId " +
+            "ORDER BY user_id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findFollowerIdsAfter(Long followeeId, long afterId, int limit);
+
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.followerCount = u.followerCount + :delta WHERE u.userId = :userId")
+    void updateFollowerCount(Long userId, int delta);
+
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.followingCount = u.followingCount + :delta WHERE u.userId = :userId")
+    void updateFollowingCount(Long userId, int delta);
+
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.recipeCount = u.recipeCount + :delta WHERE u.userId = :userId")
+    void updateRecipeCount(Long userId, int delta);
+
+    @Modifying
+    @Query(value = "UPDATE users u SET " +
+            "follower_count = (SELECT COUNT(*) FROM following f WHERE f.following_id = u.user_id), " +
+            "following_count = (SELECT COUNT(*) FROM following f WHERE f.user_id = u.user_id), " +
+            "recipe_count = (SELECT COUNT(*) FROM recipe r WHERE r.user_id = u.user_id)",
+            nativeQuery = true)
+    void reconcileCounters();
+
     Boolean existsByUserIdAndLikedRecipes_RecipeId(Long userIdFromAuthToken, Long recipeId);
 
     Boolean existsByUserIdAndBookmarkedRecipes_RecipeId(Long userIdFromAuthToken, Long recipeId);
 
+    @Query("SELECT r.recipeId FROM RecipeEntity r JOIN r.likes u " +
+            "WHERE u.userId = :userId AND r.recipeId IN :recipeIds")
+    Set<Long> findLikedRecipeIds(Long userId, Collection<Long> recipeIds);
+
+    @Query("SELECT r.recipeId FROM RecipeEntity r JOIN r.bookmarks u " +
+            "WHERE u.userId = :userId AND r.recipeId IN :recipeIds")
+    Set<Long> findBookmarkedRecipeIds(Long userId, Collection<Long> recipeIds);
+
     Page<UserEntity> findByFollowingUserId(Long userId, Pageable pageable);
 
     Page<UserEntity> findByFollowersUserId(Long userId, Pageable pageable);
 
-    @Modifying
-    @Query("UPDATE UserEntity u SET u.viewCount = u.viewCount + 1 WHERE u.userId = :userId")
-    void incrementViewCount(Long userId);
-
     @Query("SELECT u.viewCount FROM UserEntity u WHERE u.userId = :userId")
     long getViewCount(Long userId);
+
+    @Query("SELECT u.followerCount FROM UserEntity u WHERE u.userId = :userId")
+    int getFollowerCount(Long userId);
 }
@@ -0,0 +1,132 @@
+package dev.yerokha.cookscorner.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class AccessTokenCache {
+
+    private static final String INVALIDATION_CHANNEL = "access_token:invalidated";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration maxTtl;
+    private final Cache<String, CachedToken> cache;
+    // the cached token keys of each user, so revoking a user's tokens does not scan the whole cache
+    private final ConcurrentMap<String, Set<String>> keysByEmail = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    public AccessTokenCache(RedisTemplate<String, String> redisTemplate,
+                            RedisMessageListenerContainer listenerContainer,
+                            @Value("${security.token-cache.max-size:10000}") long maxSize,
+                            @Value("${security.token-cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedToken token, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), token.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .evictionListener((String key, CachedToken token, RemovalCause cause) -> {
+                    if (token != null) {
+                        unlink(token.email(), key);
+                    }
+                })
+                .build();
+
+        listenerContainer.addMessageListener((message, pattern) ->
+                evict(new String(message.getBody(), StandardCharsets.UTF_8)), new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public Jwt get(String accessToken) {
+        CachedToken token = cache.getIfPresent(hash(accessToken));
+        return token == null ? null : token.jwt();
+    }
+
+    public long stamp() {
+        return generation.get();
+    }
+
+    public void put(String accessToken, Jwt jwt, long stamp) {
+        Instant maxExpiresAt = Instant.now().plus(maxTtl);
+        Instant tokenExpiresAt = jwt.getExpiresAt();
+        Instant expiresAt = tokenExpiresAt != null && tokenExpiresAt.isBefore(maxExpiresAt) ? tokenExpiresAt : maxExpiresAt;
+        String key = hash(accessToken);
+        String email = jwt.getSubject();
+        keysByEmail.compute(email, (user, keys) -> {
+            Set<String> userKeys = keys == null ? new HashSet<>() : keys;
+            userKeys.add(key);
+            return userKeys;
+        });
+        cache.put(key, new CachedToken(email, jwt, expiresAt));
+
+        // a revocation that raced with this validation must not leave the token cached
+        if (generation.get() != stamp) {
+            cache.invalidate(key);
+        }
+    }
+
+    public void invalidate(String email) {
+        evict(email);
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, email);
+    }
+
+    private void evict(String email) {
+        generation.incrementAndGet();
+        Set<String> keys = keysByEmail.remove(email);
+        if (keys != null) {
+            cache.invalidateAll(keys);
+        }
+    }
+
+    private void unlink(String email, String key) {
+        keysByEmail.computeIfPresent(email, (user, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private static String hash(String accessToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record CachedToken(String email, Jwt jwt, Instant expiresAt) {
+    }
+}
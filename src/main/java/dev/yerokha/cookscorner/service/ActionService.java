@@ -1,23 +1,34 @@
 package dev.yerokha.cookscorner.service;
 
-import dev.yerokha.cookscorner.entity.CommentEntity;
-import dev.yerokha.cookscorner.entity.RecipeEntity;
-import dev.yerokha.cookscorner.entity.UserEntity;
+import dev.yerokha.cookscorner.dto.ActionRequest;
+import dev.yerokha.cookscorner.dto.ActionResult;
+import dev.yerokha.cookscorner.enums.ActionStatus;
+import dev.yerokha.cookscorner.enums.TrendingSignal;
+import dev.yerokha.cookscorner.exception.NotFoundException;
 import dev.yerokha.cookscorner.repository.CommentRepository;
 import dev.yerokha.cookscorner.repository.RecipeRepository;
 import dev.yerokha.cookscorner.repository.UserRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
 public class ActionService {
 
     private final RecipeRepository recipeRepository;
-    private final RecipeService recipeService;
-    private final UserRepository userRepository;
     private final CommentRepository commentRepository;
-    private final UserService userService;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final RecipeCache recipeCache;
+    private final TrendingRanking trendingRanking;
 
     private static final byte LIKE = 1;
     private static final byte DISLIKE = 10;
@@ -26,137 +37,294 @@ public class ActionService {
     private static final byte COMMENT = 1;
     private static final byte RECIPE = 2;
 
-    public ActionService(RecipeRepository recipeRepository, RecipeService recipeService, UserRepository userRepository, CommentRepository commentRepository, UserService userService) {
+    public ActionService(RecipeRepository recipeRepository, CommentRepository commentRepository, UserRepository userRepository, JdbcTemplate jdbcTemplate, RecipeCache recipeCache, TrendingRanking trendingRanking) {
         this.recipeRepository = recipeRepository;
-        this.recipeService = recipeService;
-        this.userRepository = userRepository;
         this.commentRepository = commentRepository;
-        this.userService = userService;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.recipeCache = recipeCache;
+        this.trendingRanking = trendingRanking;
     }
 
-    public void interact(byte actionId, byte objectTypeId, Long objectId, Long userIdFromAuthToken) {
-        switch (actionId) {
+    @Transactional
+    public boolean interact(byte actionId, byte objectTypeId, Long objectId, Long userIdFromAuthToken) {
+        return switch (actionId) {
             case LIKE -> likeObject(objectTypeId, objectId, userIdFromAuthToken);
             case DISLIKE -> dislikeObject(objectTypeId, objectId, userIdFromAuthToken);
             case SAVE -> saveRecipe(objectId, userIdFromAuthToken);
             case REMOVE -> removeRecipe(objectId, userIdFromAuthToken);
             default -> throw new IllegalArgumentException("Invalid action id");
-        }
+        };
     }
 
-    private void dislikeObject(byte objectTypeId, Long objectId, Long userIdFromAuthToken) {
-        switch (objectTypeId) {
-            case COMMENT -> dislikeComment(objectId, userIdFromAuthToken);
-            case RECIPE -> dislikeRecipe(objectId, userIdFromAuthToken);
-            default -> throw new IllegalArgumentException("Invalid object type id");
+    @Transactional
+    public List<ActionResult> interactAll(List<ActionRequest> actions, Long userIdFromAuthToken) {
+        List<Relation> relations = actions.stream()
+                .map(ActionService::getRelation)
+                .toList();
+
+        Set<String> targets = new HashSet<>();
+        for (int i = 0; i < actions.size(); i++) {
+            if (relations.get(i) != null && !targets.add(relations.get(i) + ":" + actions.get(i).objectId())) {
+                throw new IllegalArgumentException("Duplicate action for object " + actions.get(i).objectId());
+            }
         }
-    }
 
-    private void likeObject(byte objectTypeId, Long objectId, Long userIdFromAuthToken) {
-        switch (objectTypeId) {
-            case COMMENT -> likeComment(objectId, userIdFromAuthToken);
-            case RECIPE -> likeRecipe(objectId, userIdFromAuthToken);
-            default -> throw new IllegalArgumentException("Invalid object id");
+        Map<Relation, Set<Long>> existingIds = getExistingIds(actions, relations);
+        Map<Relation, Set<Long>> currentIds = getCurrentIds(existingIds, userIdFromAuthToken);
+
+        ActionStatus[] statuses = new ActionStatus[actions.size()];
+        Map<Relation, List<Integer>> inserts = new EnumMap<>(Relation.class);
+        Map<Relation, List<Integer>> deletes = new EnumMap<>(Relation.class);
+        for (int i = 0; i < actions.size(); i++) {
+            Relation relation = relations.get(i);
+            Long objectId = actions.get(i).objectId();
+            boolean add = isAdding(actions.get(i).actionId());
+
+            if (relation == null) {
+                statuses[i] = ActionStatus.INVALID;
+            } else if (!existingIds.get(relation).contains(objectId)) {
+                statuses[i] = ActionStatus.NOT_FOUND;
+            } else if (currentIds.get(relation).contains(objectId) == add) {
+                statuses[i] = ActionStatus.UNCHANGED;
+            } else {
+                (add ? inserts : deletes).computeIfAbsent(relation, r -> new ArrayList<>()).add(i);
+            }
         }
-    }
-
-    private void likeComment(Long objectId, Long userIdFromAuthToken) {
-        UserEntity user = userService.getUserEntityById(userIdFromAuthToken);
 
-        CommentEntity comment = commentRepository.getReferenceById(objectId);
-
-        Set<UserEntity> likedUsers = comment.getLikes();
-
-        likedUsers.add(user);
-
-        comment.setLikes(likedUsers);
+        for (Relation relation : Relation.values()) {
+            List<Object[]> counterDeltas = new ArrayList<>();
+            applyBatch(relation, true, inserts.get(relation), actions, userIdFromAuthToken, statuses, counterDeltas);
+            applyBatch(relation, false, deletes.get(relation), actions, userIdFromAuthToken, statuses, counterDeltas);
+            if (relation.counterSql != null && !counterDeltas.isEmpty()) {
+                jdbcTemplate.batchUpdate(relation.counterSql, counterDeltas);
+            }
+        }
 
-        commentRepository.save(comment);
+        List<ActionResult> results = new ArrayList<>(actions.size());
+        Set<Long> changedRecipeIds = new HashSet<>();
+        for (int i = 0; i < actions.size(); i++) {
+            ActionRequest action = actions.get(i);
+            results.add(new ActionResult(action.actionId(), action.objectTypeId(), action.objectId(), statuses[i]));
+            if (statuses[i] == ActionStatus.CHANGED && relations.get(i) != Relation.COMMENT_LIKE) {
+                changedRecipeIds.add(action.objectId());
+                TrendingSignal signal = relations.get(i) == Relation.RECIPE_LIKE ? TrendingSignal.LIKE : TrendingSignal.BOOKMARK;
+                if (isAdding(action.actionId())) {
+                    trendingRanking.record(action.objectId(), signal);
+                } else {
+                    trendingRanking.retract(action.objectId(), signal);
+                }
+            }
+        }
+        recipeCache.evict(changedRecipeIds);
+        return results;
     }
 
-    private void dislikeComment(Long objectId, Long userIdFromAuthToken) {
-        UserEntity user = userService.getUserEntityById(userIdFromAuthToken);
-
-        CommentEntity comment = commentRepository.getReferenceById(objectId);
-
-        Set<UserEntity> likedUsers = comment.getLikes();
-
-        likedUsers.remove(user);
-
-        comment.setLikes(likedUsers);
+    private void applyBatch(Relation relation, boolean add, List<Integer> indexes, List<ActionRequest> actions,
+                            Long userIdFromAuthToken, ActionStatus[] statuses, List<Object[]> counterDeltas) {
+        if (indexes == null) {
+            return;
+        }
 
-        commentRepository.save(comment);
+        List<Object[]> args = indexes.stream()
+                .map(i -> new Object[]{actions.get(i).objectId(), userIdFromAuthToken})
+                .toList();
+        int[] counts = jdbcTemplate.batchUpdate(add ? relation.insertSql : relation.deleteSql, args);
+
+        // drivers may answer a batch with SUCCESS_NO_INFO (pgjdbc does with reWriteBatchedInserts), so those
+        // rows are looked up again: the read above saw the opposite state, so finding the wanted one now is
+        // taken as this request's change, which only an identical concurrent request can make wrong
+        Set<Long> unknownIds = new HashSet<>();
+        for (int j = 0; j < indexes.size(); j++) {
+            if (counts[j] == Statement.SUCCESS_NO_INFO) {
+                unknownIds.add(actions.get(indexes.get(j)).objectId());
+            }
+        }
+        Set<Long> currentIds = unknownIds.isEmpty() ? Set.of() : findCurrentIds(relation, userIdFromAuthToken, unknownIds);
+
+        for (int j = 0; j < indexes.size(); j++) {
+            int index = indexes.get(j);
+            Long objectId = actions.get(index).objectId();
+            // a reported count of zero means a concurrent request made the same change since the read above
+            boolean changed = counts[j] == Statement.SUCCESS_NO_INFO ? currentIds.contains(objectId) == add : counts[j] > 0;
+            if (changed) {
+                statuses[index] = ActionStatus.CHANGED;
+                counterDeltas.add(new Object[]{add ? 1 : -1, objectId});
+            } else {
+                statuses[index] = ActionStatus.UNCHANGED;
+            }
+        }
     }
 
-    public void likeRecipe(Long recipeId, Long userIdFromAuthToken) {
-        UserEntity user = userService.getUserEntityById(userIdFromAuthToken);
+    private Map<Relation, Set<Long>> getExistingIds(List<ActionRequest> actions, List<Relation> relations) {
+        Set<Long> recipeIds = new HashSet<>();
+        Set<Long> commentIds = new HashSet<>();
+        for (int i = 0; i < actions.size(); i++) {
+            if (relations.get(i) == Relation.COMMENT_LIKE) {
+                commentIds.add(actions.get(i).objectId());
+            } else if (relations.get(i) != null) {
+                recipeIds.add(actions.get(i).objectId());
+            }
+        }
 
-        RecipeEntity recipe = recipeService.getRecipeById(recipeId);
+        Set<Long> existingRecipeIds = recipeIds.isEmpty() ? Set.of() : recipeRepository.findExistingIds(recipeIds);
+        Set<Long> existingCommentIds = commentIds.isEmpty() ? Set.of() : commentRepository.findExistingIds(commentIds);
+        return Map.of(
+                Relation.RECIPE_LIKE, existingRecipeIds,
+                Relation.RECIPE_BOOKMARK, existingRecipeIds,
+                Relation.COMMENT_LIKE, existingCommentIds);
+    }
 
-        Set<RecipeEntity> likedRecipes = user.getLikedRecipes();
-        Set<UserEntity> likedUsers = recipe.getLikes();
+    private Map<Relation, Set<Long>> getCurrentIds(Map<Relation, Set<Long>> existingIds, Long userIdFromAuthToken) {
+        Map<Relation, Set<Long>> currentIds = new EnumMap<>(Relation.class);
+        for (Relation relation : Relation.values()) {
+            Set<Long> ids = existingIds.get(relation);
+            currentIds.put(relation, ids.isEmpty() ? Set.of() : findCurrentIds(relation, userIdFromAuthToken, ids));
+        }
+        return currentIds;
+    }
 
-        likedRecipes.add(recipe);
-        user.setLikedRecipes(likedRecipes);
+    private Set<Long> findCurrentIds(Relation relation, Long userIdFromAuthToken, Set<Long> ids) {
+        return switch (relation) {
+            case RECIPE_LIKE -> userRepository.findLikedRecipeIds(userIdFromAuthToken, ids);
+            case RECIPE_BOOKMARK -> userRepository.findBookmarkedRecipeIds(userIdFromAuthToken, ids);
+            case COMMENT_LIKE -> commentRepository.findLikedCommentIds(userIdFromAuthToken, ids);
+        };
+    }
 
-        likedUsers.add(user);
-        recipe.setLikes(likedUsers);
+    private static Relation getRelation(ActionRequest action) {
+        return switch (action.actionId()) {
+            case LIKE, DISLIKE -> switch (action.objectTypeId()) {
+                case COMMENT -> Relation.COMMENT_LIKE;
+                case RECIPE -> Relation.RECIPE_LIKE;
+                default -> null;
+            };
+            case SAVE, REMOVE -> Relation.RECIPE_BOOKMARK;
+            default -> null;
+        };
+    }
 
-        userRepository.save(user);
-        recipeRepository.save(recipe);
+    private static boolean isAdding(byte actionId) {
+        return actionId == LIKE || actionId == SAVE;
     }
 
-    public void dislikeRecipe(Long recipeId, Long userIdFromAuthToken) {
-        UserEntity user = userService.getUserEntityById(userIdFromAuthToken);
+    private boolean dislikeObject(byte objectTypeId, Long objectId, Long userIdFromAuthToken) {
+        return switch (objectTypeId) {
+            case COMMENT -> dislikeComment(objectId, userIdFromAuthToken);
+            case RECIPE -> dislikeRecipe(objectId, userIdFromAuthToken);
+            default -> throw new IllegalArgumentException("Invalid object type id");
+        };
+    }
 
-        RecipeEntity recipe = recipeService.getRecipeById(recipeId);
+    private boolean likeObject(byte objectTypeId, Long objectId, Long userIdFromAuthToken) {
+        return switch (objectTypeId) {
+            case COMMENT -> likeComment(objectId, userIdFromAuthToken);
+            case RECIPE -> likeRecipe(objectId, userIdFromAuthToken);
+            default -> throw new IllegalArgumentException("Invalid object id");
+        };
+    }
 
-        Set<RecipeEntity> likedRecipes = user.getLikedRecipes();
-        Set<UserEntity> likedUsers = recipe.getLikes();
+    private boolean likeComment(Long commentId, Long userIdFromAuthToken) {
+        if (commentRepository.insertLike(commentId, userIdFromAuthToken) > 0) {
+            return true;
+        }
 
-        likedRecipes.remove(recipe);
-        user.setLikedRecipes(likedRecipes);
+        checkCommentExists(commentId);
+        return false;
+    }
 
-        likedUsers.remove(user);
-        recipe.setLikes(likedUsers);
+    private boolean dislikeComment(Long commentId, Long userIdFromAuthToken) {
+        if (commentRepository.deleteLike(commentId, userIdFromAuthToken) > 0) {
+            return true;
+        }
 
-        userRepository.save(user);
-        recipeRepository.save(recipe);
+        checkCommentExists(commentId);
+        return false;
     }
 
-    public void saveRecipe(Long recipeId, Long userIdFromAuthToken) {
-        UserEntity user = userService.getUserEntityById(userIdFromAuthToken);
+    private boolean likeRecipe(Long recipeId, Long userIdFromAuthToken) {
+        if (recipeRepository.insertLike(recipeId, userIdFromAuthToken) > 0) {
+            recipeRepository.updateLikeCount(recipeId, 1);
+            recipeCache.evict(recipeId);
+            trendingRanking.record(recipeId, TrendingSignal.LIKE);
+            return true;
+        }
 
-        RecipeEntity recipe = recipeService.getRecipeById(recipeId);
+        checkRecipeExists(recipeId);
+        return false;
+    }
 
-        Set<RecipeEntity> bookmarkedRecipes = user.getBookmarkedRecipes();
-        Set<UserEntity> bookmarkedUsers = recipe.getBookmarks();
+    private boolean dislikeRecipe(Long recipeId, Long userIdFromAuthToken) {
+        if (recipeRepository.deleteLike(recipeId, userIdFromAuthToken) > 0) {
+            recipeRepository.updateLikeCount(recipeId, -1);
+            recipeCache.evict(recipeId);
+            trendingRanking.retract(recipeId, TrendingSignal.LIKE);
+            return true;
+        }
 
-        bookmarkedRecipes.add(recipe);
-        user.setBookmarkedRecipes(bookmarkedRecipes);
+        checkRecipeExists(recipeId);
+        return false;
+    }
 
-        bookmarkedUsers.add(user);
-        recipe.setBookmarks(bookmarkedUsers);
+    private boolean saveRecipe(Long recipeId, Long userIdFromAuthToken) {
+        if (recipeRepository.insertBookmark(recipeId, userIdFromAuthToken) > 0) {
+            recipeRepository.updateBookmarkCount(recipeId, 1);
+            recipeCache.evict(recipeId);
+            trendingRanking.record(recipeId, TrendingSignal.BOOKMARK);
+            return true;
+        }
 
-        userRepository.save(user);
-        recipeRepository.save(recipe);
+        checkRecipeExists(recipeId);
+        return false;
     }
 
-    public void removeRecipe(Long recipeId, Long userIdFromAuthToken) {
-        UserEntity user = userService.getUserEntityById(userIdFromAuthToken);
-
-        RecipeEntity recipe = recipeService.getRecipeById(recipeId);
+    private boolean removeRecipe(Long recipeId, Long userIdFromAuthToken) {
+        if (recipeRepository.deleteBookmark(recipeId, userIdFromAuthToken) > 0) {
+            recipeRepository.updateBookmarkCount(recipeId, -1);
+            recipeCache.evict(recipeId);
+            trendingRanking.retract(recipeId, TrendingSignal.BOOKMARK);
+            return true;
+        }
 
-        Set<RecipeEntity> bookmarkedRecipes = user.getBookmarkedRecipes();
-        Set<UserEntity> bookmarkedUsers = recipe.getBookmarks();
+        checkRecipeExists(recipeId);
+        return false;
+    }
 
-        bookmarkedRecipes.remove(recipe);
-        user.setBookmarkedRecipes(bookmarkedRecipes);
+    private void checkRecipeExists(Long recipeId) {
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new NotFoundException("Recipe not found");
+        }
+    }
 
-        bookmarkedUsers.remove(user);
-        recipe.setBookmarks(bookmarkedUsers);
+    private void checkCommentExists(Long commentId) {
+        if (!commentRepository.existsById(commentId)) {
+            throw new NotFoundException("Comment not found");
+        }
+    }
 
-        userRepository.save(user);
-        recipeRepository.save(recipe);
+    private enum Relation {
+        RECIPE_LIKE(
+                "INSERT INTO user_recipe_likes (recipe_id, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                "DELETE FROM user_recipe_likes WHERE recipe_id = ? AND user_id = ?",
+                "UPDATE recipe SET like_count = like_count + ? WHERE recipe_id = ?"),
+        RECIPE_BOOKMARK(
+                "INSERT INTO user_recipe_bookmarks (recipe_id, user_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                "DELETE FROM user_recipe_bookmarks WHERE recipe_id = ? AND user_id = ?",
+                "UPDATE recipe SET bookmark_count = bookmark_count + ? WHERE recipe_id = ?"),
+        // user_comment_likes is mapped with its columns swapped: user_id holds the comment, comment_id the user
+        COMMENT_LIKE(
+                "INSERT INTO user_comment_likes (user_id, comment_id) VALUES (?, ?) ON CONFLICT DO NOTHING",
+                "DELETE FROM user_comment_likes WHERE user_id = ? AND comment_id = ?",
+                null);
+
+        private final String insertSql;
+        private final String deleteSql;
+        private final String counterSql;
+
+        Relation(String insertSql, String deleteSql, String counterSql) {
+            this.insertSql = insertSql;
+            this.deleteSql = deleteSql;
+            this.counterSql = counterSql;
+        }
     }
 }
@@ -34,14 +34,16 @@ public class AuthenticationService {
     private final TokenService tokenService;
     private final MailService mailService;
     private final AuthenticationManager authenticationManager;
+    private final UserSearchIndex userSearchIndex;
 
-    public AuthenticationService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, TokenService tokenService, MailService mailService, AuthenticationManager authenticationManager) {
+    public AuthenticationService(UserRepository userRepository, RoleRepository roleRepository, PasswordEncoder passwordEncoder, TokenService tokenService, MailService mailService, AuthenticationManager authenticationManager, UserSearchIndex userSearchIndex) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.tokenService = tokenService;
         this.mailService = mailService;
         this.authenticationManager = authenticationManager;
+        this.userSearchIndex = userSearchIndex;
     }
 
 
@@ -116,6 +118,7 @@ public class AuthenticationService {
     public void confirmEmail(String encryptedToken) {
         String email = tokenService.confirmationTokenIsValid(encryptedToken);
         userRepository.enableUser(email);
+        userRepository.findByEmail(email).ifPresent(userSearchIndex::index);
     }
 
     public void revoke(String refreshToken, HttpServletRequest request) {
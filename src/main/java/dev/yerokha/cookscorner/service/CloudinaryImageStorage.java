@@ -0,0 +1,26 @@
+package dev.yerokha.cookscorner.service;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import dev.yerokha.cookscorner.service.interfaces.ImageStorage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Service
+@ConditionalOnProperty(name = "image.storage", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryImageStorage implements ImageStorage {
+
+    private final Cloudinary cloudinary;
+
+    public CloudinaryImageStorage(Cloudinary cloudinary) {
+        this.cloudinary = cloudinary;
+    }
+
+    @Override
+    public String store(String key, Path file) throws IOException {
+        return cloudinary.uploader().upload(file.toFile(), ObjectUtils.emptyMap()).get("url").toString();
+    }
+}
@@ -2,21 +2,29 @@ package dev.yerokha.cookscorner.service;
 
 import dev.yerokha.cookscorner.dto.Comment;
 import dev.yerokha.cookscorner.dto.CreateCommentRequest;
+import dev.yerokha.cookscorner.dto.CursorSlice;
 import dev.yerokha.cookscorner.dto.UpdateCommentRequest;
 import dev.yerokha.cookscorner.entity.CommentEntity;
+import dev.yerokha.cookscorner.entity.RecipeEntity;
+import dev.yerokha.cookscorner.enums.TrendingSignal;
 import dev.yerokha.cookscorner.exception.ForbiddenException;
 import dev.yerokha.cookscorner.exception.NotFoundException;
 import dev.yerokha.cookscorner.repository.CommentRepository;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
 import dev.yerokha.cookscorner.repository.UserRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Map;
 
 import static dev.yerokha.cookscorner.mapper.CommentMapper.toComment;
+import static dev.yerokha.cookscorner.util.CursorUtil.decodeCursor;
+import static dev.yerokha.cookscorner.util.CursorUtil.encodeCursor;
 import static java.lang.Integer.parseInt;
 
 @Service
@@ -26,19 +34,44 @@ public class CommentService {
     private final RecipeService recipeService;
     private final UserService userService;
     private final UserRepository userRepository;
+    private final RecipeRepository recipeRepository;
+    private final RecipeCache recipeCache;
+    private final TrendingRanking trendingRanking;
 
-    public CommentService(CommentRepository commentRepository, RecipeService recipeService, UserService userService, UserRepository userRepository) {
+    public CommentService(CommentRepository commentRepository, RecipeService recipeService, UserService userService, UserRepository userRepository, RecipeRepository recipeRepository, RecipeCache recipeCache, TrendingRanking trendingRanking) {
         this.commentRepository = commentRepository;
         this.recipeService = recipeService;
         this.userService = userService;
         this.userRepository = userRepository;
+        this.recipeRepository = recipeRepository;
+        this.recipeCache = recipeCache;
+        this.trendingRanking = trendingRanking;
     }
 
+    @Transactional
     public Comment createComment(CreateCommentRequest request, Long userIdFromAuthToken) {
-        CommentEntity entity = toEntity(request, userIdFromAuthToken);
+        CommentEntity entity = commentRepository.save(toEntity(request, userIdFromAuthToken));
+        updateCommentCount(entity, 1);
 
-        return toComment(commentRepository.save(entity),
-                userIdFromAuthToken);
+        return toComment(entity, userIdFromAuthToken);
+    }
+
+    private void updateCommentCount(CommentEntity comment, int delta) {
+        RecipeEntity recipe = comment.getRecipeEntity();
+        if (recipe == null) {
+            // only direct replies to a parent comment count towards the recipe total
+            recipe = comment.getParentComment().getRecipeEntity();
+        }
+
+        if (recipe != null) {
+            recipeRepository.updateCommentCount(recipe.getRecipeId(), delta);
+            recipeCache.evict(recipe.getRecipeId());
+            if (delta > 0) {
+                trendingRanking.record(recipe.getRecipeId(), TrendingSignal.COMMENT);
+            } else {
+                trendingRanking.retract(recipe.getRecipeId(), TrendingSignal.COMMENT);
+            }
+        }
     }
 
     private CommentEntity toEntity(CreateCommentRequest request, Long userIdFromAuthToken) {
@@ -56,7 +89,16 @@ public class CommentService {
         return entity;
     }
 
-    public Page<Comment> getComments(Long objectId, Map<String, String> params, Long userIdFromAuthToken) {
+    public Slice<Comment> getComments(Long objectId, Map<String, String> params, Long userIdFromAuthToken) {
+        if (params.containsKey("cursor")) {
+            String cursor = params.get("cursor");
+            long commentId = cursor == null || cursor.isEmpty() ? 0 : decodeCursor(cursor, 1)[0];
+            Slice<Comment> comments = commentRepository.findParentCommentsAfter(
+                            objectId, commentId, PageRequest.ofSize(parseInt(params.getOrDefault("size", "5"))))
+                    .map(entity -> toComment(entity, userIdFromAuthToken));
+            return CursorSlice.of(comments, comment -> encodeCursor(comment.commentId()));
+        }
+
         Pageable pageable = PageRequest.of(
                 parseInt(params.getOrDefault("page", "0")),
                 parseInt(params.getOrDefault("size", "5"))
@@ -97,6 +139,7 @@ public class CommentService {
         return toComment(comment, userIdFromAuthToken);
     }
 
+    @Transactional
     public void deleteComment(Long commentId, Long userIdFromAuthToken) {
         CommentEntity comment = getComment(commentId);
         if (!userIdFromAuthToken.equals(comment.getAuthor().getUserId())) {
@@ -110,6 +153,7 @@ public class CommentService {
         }
 
         commentRepository.delete(comment);
+        updateCommentCount(comment, -1);
     }
 
     private CommentEntity getComment(Long commentId) {
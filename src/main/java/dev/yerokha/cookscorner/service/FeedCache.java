@@ -0,0 +1,171 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import dev.yerokha.cookscorner.dto.RecipeDto;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static dev.yerokha.cookscorner.util.ExecutorUtil.boundedExecutor;
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
+
+@Service
+public class FeedCache {
+
+    private static final String KEY_PREFIX = "feed:";
+    private static final String KEYS = "feed:keys";
+    private static final String INVALIDATION_CHANNEL = "feed:invalidated";
+    private static final Duration LOCK_TTL = Duration.ofSeconds(10);
+
+    private final RecipeRepository recipeRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxPages;
+    private final int maxPageSize;
+    private final Duration softTtl;
+    private final Duration hardTtl;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final LoadingCache<FeedKey, FeedPage> cache;
+
+    public FeedCache(RecipeRepository recipeRepository,
+                     RedisTemplate<String, String> redisTemplate,
+                     ObjectMapper objectMapper,
+                     RedisMessageListenerContainer listenerContainer,
+                     @Value("${feed.cache.pages:3}") int maxPages,
+                     @Value("${feed.cache.max-page-size:50}") int maxPageSize,
+                     @Value("${feed.cache.max-size:500}") long maxSize,
+                     @Value("${feed.cache.soft-ttl-seconds:15}") long softTtlSeconds,
+                     @Value("${feed.cache.ttl-seconds:120}") long ttlSeconds) {
+        this.recipeRepository = recipeRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.maxPages = maxPages;
+        this.maxPageSize = maxPageSize;
+        this.softTtl = Duration.ofSeconds(softTtlSeconds);
+        this.hardTtl = Duration.ofSeconds(ttlSeconds);
+
+        this.refreshExecutor = boundedExecutor("feed-refresh-", 2, 100);
+
+        // a page past its soft ttl is still served while a single background load replaces it,
+        // and concurrent misses for the same page wait for one load instead of each querying
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(softTtl)
+                .expireAfterWrite(hardTtl)
+                .executor(refreshExecutor)
+                .build(this::load);
+
+        listenerContainer.addMessageListener((message, pattern) -> cache.invalidateAll(),
+                new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    public Page<RecipeDto> getPopular(Pageable pageable) {
+        return get(new FeedKey(null, pageable));
+    }
+
+    public Page<RecipeDto> getByCategory(Long categoryId, Pageable pageable) {
+        return get(new FeedKey(categoryId, pageable));
+    }
+
+    public void invalidate() {
+        afterCommit(() -> {
+            cache.invalidateAll();
+            try {
+                Set<String> keys = redisTemplate.opsForSet().members(KEYS);
+                if (keys != null && !keys.isEmpty()) {
+                    redisTemplate.delete(keys);
+                }
+                redisTemplate.delete(KEYS);
+                redisTemplate.convertAndSend(INVALIDATION_CHANNEL, "");
+            } catch (DataAccessException ignored) {
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Page<RecipeDto> get(FeedKey key) {
+        Pageable pageable = key.pageable();
+        if (pageable.getPageNumber() >= maxPages || pageable.getPageSize() > maxPageSize) {
+            return query(key);
+        }
+
+        FeedPage page = cache.get(key);
+        // callers fill in the viewer's likes and bookmarks, so every request gets its own cards
+        List<RecipeDto> content = page.content().stream()
+                .map(recipe -> new RecipeDto(recipe.getRecipeId(), recipe.getTitle(), recipe.getAuthor(),
+                        recipe.getImageUrl(), recipe.getLikes(), recipe.getBookmarks(), recipe.getViewCount()))
+                .toList();
+        return new PageImpl<>(content, pageable, page.totalElements());
+    }
+
+    private FeedPage load(FeedKey key) {
+        String redisKey = key.redisKey();
+        try {
+            FeedPage shared = read(redisKey);
+            if (shared != null && Instant.now().isBefore(Instant.ofEpochMilli(shared.loadedAt()).plus(softTtl))) {
+                return shared;
+            }
+
+            // only one instance refreshes a stale shared page, the others keep serving it meanwhile
+            String lockKey = redisKey + ":lock";
+            if (shared != null && !Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(lockKey, "1", LOCK_TTL))) {
+                return shared;
+            }
+
+            FeedPage page = toFeedPage(query(key));
+            redisTemplate.opsForValue().set(redisKey, objectMapper.writeValueAsString(page), hardTtl);
+            redisTemplate.opsForSet().add(KEYS, redisKey);
+            redisTemplate.delete(lockKey);
+            return page;
+        } catch (DataAccessException | JsonProcessingException e) {
+            return toFeedPage(query(key));
+        }
+    }
+
+    private FeedPage read(String redisKey) throws JsonProcessingException {
+        String json = redisTemplate.opsForValue().get(redisKey);
+        return json == null ? null : objectMapper.readValue(json, FeedPage.class);
+    }
+
+    private Page<RecipeDto> query(FeedKey key) {
+        return key.categoryId() == null
+                ? recipeRepository.findRecipeCards(key.pageable())
+                : recipeRepository.findRecipeCardsByCategoryId(key.categoryId(), key.pageable());
+    }
+
+    private static FeedPage toFeedPage(Page<RecipeDto> page) {
+        return new FeedPage(page.getContent(), page.getTotalElements(), System.currentTimeMillis());
+    }
+
+    private record FeedKey(Long categoryId, Pageable pageable) {
+
+        String redisKey() {
+            String feed = categoryId == null ? "popular" : "category:" + categoryId;
+            return KEY_PREFIX + feed + ":" + pageable.getPageNumber() + ":" + pageable.getPageSize();
+        }
+    }
+
+    private record FeedPage(List<RecipeDto> content, long totalElements, long loadedAt) {
+    }
+}
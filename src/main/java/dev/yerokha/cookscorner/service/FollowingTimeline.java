@@ -0,0 +1,211 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import dev.yerokha.cookscorner.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Stream;
+
+import static dev.yerokha.cookscorner.util.ExecutorUtil.boundedExecutor;
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
+
+// Recipes of cooks with at most fanOutMaxFollowers followers are pushed into each follower's timeline
+// when published. Recipes of bigger cooks are pulled at read time, so one post never costs millions of writes.
+@Service
+public class FollowingTimeline {
+
+    private static final String KEY_PREFIX = "timeline:";
+    // closes every built timeline so a user who follows nobody with recipes still has a key and is not rebuilt
+    private static final String BUILT_MARKER = "0";
+    private static final int FAN_OUT_BATCH_SIZE = 1000;
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final RecipeRepository recipeRepository;
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final int maxSize;
+    private final int fanOutMaxFollowers;
+    private final Duration ttl;
+    private final ThreadPoolExecutor fanOutExecutor;
+
+    public FollowingTimeline(RecipeRepository recipeRepository,
+                             UserRepository userRepository,
+                             RedisTemplate<String, String> redisTemplate,
+                             @Value("${timeline.max-size:500}") int maxSize,
+                             @Value("${timeline.fan-out-max-followers:10000}") int fanOutMaxFollowers,
+                             @Value("${timeline.ttl-hours:72}") long ttlHours,
+                             @Value("${timeline.fan-out.workers:2}") int workers,
+                             @Value("${timeline.fan-out.queue-capacity:1000}") int queueCapacity) {
+        this.recipeRepository = recipeRepository;
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.maxSize = maxSize;
+        this.fanOutMaxFollowers = fanOutMaxFollowers;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.fanOutExecutor = boundedExecutor("timeline-fan-out-", workers, queueCapacity);
+    }
+
+    public void publish(Long authorId, int followerCount, Long recipeId) {
+        if (followerCount == 0 || followerCount > fanOutMaxFollowers) {
+            return;
+        }
+
+        afterCommit(() -> fanOutExecutor.execute(() -> fanOut(authorId, recipeId)));
+    }
+
+    // a cook who drops back under the threshold has recipes that were neither pushed nor are pulled any
+    // more, so their followers' timelines are dropped and rebuilt from the database on the next read
+    public void followersChanged(Long authorId, int followerCount, int delta) {
+        if (followerCount > fanOutMaxFollowers || followerCount - delta <= fanOutMaxFollowers) {
+            return;
+        }
+
+        afterCommit(() -> fanOutExecutor.execute(() -> invalidateFollowers(authorId)));
+    }
+
+    public void invalidate(Long userId) {
+        afterCommit(() -> {
+            try {
+                redisTemplate.delete(key(userId));
+            } catch (DataAccessException ignored) {
+            }
+        });
+    }
+
+    public Slice<Long> getPage(Long userId, Pageable pageable) {
+        int limit = (int) pageable.getOffset() + pageable.getPageSize() + 1;
+
+        List<Long> pushed;
+        try {
+            pushed = read(userId, limit);
+        } catch (DataAccessException e) {
+            pushed = findFolloweeRecipeIds(userId, 0, fanOutMaxFollowers, limit);
+        }
+        List<Long> pulled = findFolloweeRecipeIds(userId, fanOutMaxFollowers + 1, Integer.MAX_VALUE, limit);
+
+        // a cook who crossed the threshold can show up on both sides
+        List<Long> merged = Stream.concat(pushed.stream(), pulled.stream())
+                .distinct()
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new SliceImpl<>(merged.subList(from, to), pageable, merged.size() > to);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdown();
+    }
+
+    private void fanOut(Long authorId, Long recipeId) {
+        byte[] value = serialize(recipeId.toString());
+        // timelines nobody read lately have expired and are rebuilt from the database on the next read
+        forEachFollowerTimeline(authorId, (connection, key) -> {
+            RedisListCommands lists = connection.listCommands();
+            lists.lPushX(key, value);
+            lists.lTrim(key, 0, maxSize - 1);
+        });
+    }
+
+    private void invalidateFollowers(Long authorId) {
+        forEachFollowerTimeline(authorId, (connection, key) -> connection.keyCommands().del(key));
+    }
+
+    private void forEachFollowerTimeline(Long authorId, BiConsumer<RedisConnection, byte[]> command) {
+        long afterId = 0;
+        List<Long> followerIds;
+        do {
+            followerIds = userRepository.findFollowerIdsAfter(authorId, afterId, FAN_OUT_BATCH_SIZE);
+            List<Long> batch = followerIds;
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Long followerId : batch) {
+                    command.accept(connection, serialize(key(followerId)));
+                }
+                return null;
+            });
+
+            if (!followerIds.isEmpty()) {
+                afterId = followerIds.get(followerIds.size() - 1);
+            }
+        } while (followerIds.size() == FAN_OUT_BATCH_SIZE);
+    }
+
+    private List<Long> read(Long userId, int limit) {
+        String key = key(userId);
+        List<String> values = redisTemplate.opsForList().range(key, 0, limit - 1);
+        if (values == null || values.isEmpty()) {
+            return rebuild(userId, limit);
+        }
+
+        redisTemplate.expire(key, ttl);
+        return values.stream()
+                .filter(value -> !value.equals(BUILT_MARKER))
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    private List<Long> rebuild(Long userId, int limit) {
+        String key = key(userId);
+        for (int attempt = 0; attempt < MAX_REBUILD_ATTEMPTS; attempt++) {
+            // the marker takes the last of the maxSize entries a timeline keeps
+            List<Long> recipeIds = findFolloweeRecipeIds(userId, 0, fanOutMaxFollowers, maxSize - 1);
+            replace(key, recipeIds);
+
+            // fan-out skips missing timelines, so a recipe committed after the query but before the
+            // timeline existed reached nobody; in that case the list is built again
+            List<Long> newest = findFolloweeRecipeIds(userId, 0, fanOutMaxFollowers, 1);
+            if (newest.isEmpty() || (!recipeIds.isEmpty() && newest.get(0) <= recipeIds.get(0))) {
+                return recipeIds.subList(0, Math.min(limit, recipeIds.size()));
+            }
+        }
+
+        // the followees keep posting faster than the timeline is built, the next read tries again
+        redisTemplate.delete(key);
+        return findFolloweeRecipeIds(userId, 0, fanOutMaxFollowers, limit);
+    }
+
+    // the list is built under a key of its own and renamed into place, so concurrent rebuilds replace
+    // each other instead of appending to the same list
+    private void replace(String key, List<Long> recipeIds) {
+        List<String> values = new ArrayList<>(recipeIds.size() + 1);
+        recipeIds.forEach(recipeId -> values.add(recipeId.toString()));
+        values.add(BUILT_MARKER);
+
+        String buildKey = key + ":build:" + UUID.randomUUID();
+        redisTemplate.opsForList().rightPushAll(buildKey, values);
+        redisTemplate.expire(buildKey, ttl);
+        redisTemplate.rename(buildKey, key);
+    }
+
+    private List<Long> findFolloweeRecipeIds(Long userId, int minFollowers, int maxFollowers, int limit) {
+        return recipeRepository.findFolloweeRecipeIds(userId, minFollowers, maxFollowers, PageRequest.ofSize(limit));
+    }
+
+    private static String key(Long userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static byte[] serialize(String value) {
+        return RedisSerializer.string().serialize(value);
+    }
+}
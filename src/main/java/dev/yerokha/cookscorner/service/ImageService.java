@@ -1,25 +1,52 @@
 package dev.yerokha.cookscorner.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
 import dev.yerokha.cookscorner.entity.Image;
+import dev.yerokha.cookscorner.enums.ImageStatus;
+import dev.yerokha.cookscorner.enums.ImageVariant;
 import dev.yerokha.cookscorner.repository.ImageRepository;
+import dev.yerokha.cookscorner.service.interfaces.ImageStorage;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static dev.yerokha.cookscorner.util.ExecutorUtil.boundedExecutor;
+import static dev.yerokha.cookscorner.util.ImageVariantUtil.createVariants;
+import static dev.yerokha.cookscorner.util.ImageVariantUtil.deleteAll;
+import static dev.yerokha.cookscorner.util.ImageVariantUtil.detectFormat;
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
 
 @Service
 public class ImageService {
 
     private final ImageRepository imageRepository;
-    private final Cloudinary cloudinary;
+    private final ImageStorage imageStorage;
+    private final ThreadPoolExecutor uploadExecutor;
+    private final ConcurrentMap<String, CompletableFuture<Image>> inFlightUploads = new ConcurrentHashMap<>();
 
-    public ImageService(ImageRepository imageRepository, Cloudinary cloudinary) {
+    public ImageService(ImageRepository imageRepository,
+                        ImageStorage imageStorage,
+                        @Value("${image.upload.workers:4}") int workers,
+                        @Value("${image.upload.queue-capacity:100}") int queueCapacity) {
         this.imageRepository = imageRepository;
-        this.cloudinary = cloudinary;
+        this.imageStorage = imageStorage;
+        this.uploadExecutor = boundedExecutor("image-upload-", workers, queueCapacity);
     }
 
     public Image processImage(MultipartFile file) {
@@ -27,37 +54,140 @@ public class ImageService {
     }
 
     private Image saveImage(MultipartFile file) {
+        SpooledImage spooled = spool(file);
+        if (!isSupportedImage(spooled.path())) {
+            deleteQuietly(spooled.path());
+            throw new IllegalArgumentException("Unsupported image format, expected JPEG, PNG or WebP");
+        }
+
+        // identical concurrent uploads wait for the first one instead of storing the same content again
+        while (true) {
+            CompletableFuture<Image> claim = new CompletableFuture<>();
+            CompletableFuture<Image> inFlight = inFlightUploads.putIfAbsent(spooled.hash(), claim);
+            if (inFlight == null) {
+                return claimAndStore(spooled, claim, file.getOriginalFilename());
+            }
+
+            // a null result means the first upload's transaction rolled back and its row never existed
+            Image image = inFlight.join();
+            if (image != null) {
+                deleteQuietly(spooled.path());
+                return image;
+            }
+        }
+    }
+
+    private Image claimAndStore(SpooledImage spooled, CompletableFuture<Image> claim, String imageName) {
+        try {
+            Image image = findOrCreate(spooled, imageName);
+            // waiters run in their own transactions, so they may only reference the row once it is committed
+            afterCommit(() -> release(spooled.hash(), claim, image), () -> release(spooled.hash(), claim, null));
+            return image;
+        } catch (RuntimeException e) {
+            release(spooled.hash(), claim, null);
+            throw e;
+        }
+    }
+
+    // removing the claim first lets waiters that retry after a rollback claim the hash themselves
+    private void release(String hash, CompletableFuture<Image> claim, Image image) {
+        inFlightUploads.remove(hash, claim);
+        claim.complete(image);
+    }
+
+    private Image findOrCreate(SpooledImage spooled, String imageName) {
+        Image image = imageRepository.findByHash(spooled.hash()).orElse(null);
+        if (image != null && image.getStatus() != ImageStatus.FAILED) {
+            deleteQuietly(spooled.path());
+            return image;
+        }
+
+        // single statements on the caller's connection: when another instance stores the same content
+        // first they change nothing instead of failing, so the caller's transaction stays usable
+        boolean claimed = image == null
+                ? imageRepository.insertPending(spooled.hash(), imageName) > 0
+                : imageRepository.updateStatus(image.getImageId(), ImageStatus.FAILED, ImageStatus.PENDING) > 0;
+        if (image == null) {
+            image = imageRepository.findByHash(spooled.hash()).orElseThrow();
+        } else if (claimed) {
+            image.setStatus(ImageStatus.PENDING);
+        }
+
+        if (!claimed) {
+            deleteQuietly(spooled.path());
+            return image;
+        }
+
+        // the worker can only update the row once the caller's transaction made it visible
+        Long imageId = image.getImageId();
+        afterCommit(() -> uploadExecutor.execute(() -> upload(imageId, spooled)), () -> deleteQuietly(spooled.path()));
+        return image;
+    }
+
+    private SpooledImage spool(MultipartFile file) {
+        MessageDigest digest = sha256();
+        Path path = null;
+        try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+            path = Files.createTempFile("image-", ".upload");
+            Files.copy(in, path, StandardCopyOption.REPLACE_EXISTING);
+            return new SpooledImage(path, bytesToHex(digest.digest()));
+        } catch (IOException e) {
+            deleteQuietly(path);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void upload(Long imageId, SpooledImage spooled) {
+        Map<ImageVariant, Path> variants = Map.of();
         try {
-            byte[] imageBytes = file.getBytes();
-            byte[] hashBytes = calculateHash(imageBytes);
-            String hashString = bytesToHex(hashBytes);
-
-            return imageRepository.findByHash(hashString).orElseGet(() -> {
-                        Image image = new Image();
-                        image.setHash(hashString);
-                        image.setImageName(file.getOriginalFilename());
-                        try {
-                            image.setImageUrl(uploadImage(file));
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-
-                        return imageRepository.save(image);
-                    }
-            );
+            variants = createVariants(spooled.path());
+            imageRepository.updateUpload(imageId,
+                    storeVariant(spooled.hash(), ImageVariant.FULL, variants),
+                    storeVariant(spooled.hash(), ImageVariant.CARD, variants),
+                    storeVariant(spooled.hash(), ImageVariant.THUMBNAIL, variants),
+                    ImageStatus.READY);
+        } catch (IOException | RuntimeException e) {
+            imageRepository.updateUpload(imageId, null, null, null, ImageStatus.FAILED);
+        } finally {
+            deleteAll(variants);
+            deleteQuietly(spooled.path());
+        }
+    }
+
+    private static boolean isSupportedImage(Path path) {
+        try {
+            return detectFormat(path).isPresent();
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private String uploadImage(MultipartFile file) throws IOException {
-        return cloudinary.uploader().upload(file.getBytes(), ObjectUtils.emptyMap()).get("url").toString();
+    private String storeVariant(String hash, ImageVariant variant, Map<ImageVariant, Path> variants) throws IOException {
+        Path path = variants.get(variant);
+        String key = hash + "-" + variant.name().toLowerCase(Locale.ROOT) + extension(path.getFileName().toString());
+        return imageStorage.store(key, path);
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot < 0 ? "" : fileName.substring(dot).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,5}") ? extension : "";
     }
 
-    private byte[] calculateHash(byte[] data) {
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            return digest.digest(data);
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("SHA-256 algorithm not available", e);
         }
@@ -74,4 +204,13 @@ public class ImageService {
         }
         return hexString.toString();
     }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        uploadExecutor.shutdown();
+        uploadExecutor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private record SpooledImage(Path path, String hash) {
+    }
 }
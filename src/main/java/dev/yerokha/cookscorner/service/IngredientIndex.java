@@ -0,0 +1,246 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.entity.RecipeEntity;
+import dev.yerokha.cookscorner.enums.IngredientMatch;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
+
+// Like RecipeSearchIndex, every instance keeps a copy that is updated from broadcast changes and
+// periodically rebuilt.
+@Service
+public class IngredientIndex {
+
+    private static final String CHANNEL = "search:ingredients:indexed";
+
+    private final RecipeRepository recipeRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings postings = new Postings();
+    // changes applied while a rebuild reads the database, replayed onto the rebuilt postings
+    private List<IndexedRecipe> changesDuringRebuild;
+
+    public IngredientIndex(RecipeRepository recipeRepository,
+                           RedisTemplate<String, String> redisTemplate,
+                           ObjectMapper objectMapper,
+                           RedisMessageListenerContainer listenerContainer) {
+        this.recipeRepository = recipeRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+
+        listenerContainer.addMessageListener((message, pattern) -> receive(message.getBody()), new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.ingredients.rebuild-interval-ms:3600000}",
+            initialDelayString = "${search.ingredients.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        setChangesDuringRebuild(new ArrayList<>());
+        Postings rebuilt = new Postings();
+        try {
+            Map<Integer, Set<String>> ingredients = new HashMap<>();
+            for (Object[] row : recipeRepository.findSearchableIngredients()) {
+                ingredients.computeIfAbsent(toIndexId((Long) row[0]), id -> new HashSet<>()).add(normalize((String) row[1]));
+            }
+            ingredients.forEach(rebuilt::put);
+            rebuilt.optimize();
+        } catch (RuntimeException e) {
+            setChangesDuringRebuild(null);
+            throw e;
+        }
+
+        // matches keep using the old postings until the new ones are complete
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach(rebuilt::replace);
+            changesDuringRebuild = null;
+            postings = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(RecipeEntity recipe) {
+        IndexedRecipe indexed = new IndexedRecipe(toIndexId(recipe.getRecipeId()), recipe.getRecipeIngredients().stream()
+                .map(ri -> normalize(ri.getIngredientEntity().getIngredientName()))
+                .collect(Collectors.toSet()));
+
+        afterCommit(() -> {
+            apply(indexed);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(indexed));
+            } catch (DataAccessException | JsonProcessingException ignored) {
+            }
+        });
+    }
+
+    private void receive(byte[] message) {
+        try {
+            apply(objectMapper.readValue(message, IndexedRecipe.class));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void apply(IndexedRecipe recipe) {
+        lock.writeLock().lock();
+        try {
+            postings.replace(recipe);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setChangesDuringRebuild(List<IndexedRecipe> changes) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Recipes are ranked by the share of their own ingredients that the query covers, so a recipe
+    // made only of the given ingredients comes before a long one that merely uses some of them.
+    public List<Long> match(Collection<String> ingredients, IngredientMatch match, int maxMissing) {
+        Set<String> terms = ingredients.stream()
+                .map(IngredientIndex::normalize)
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toSet());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> bitmaps = terms.stream()
+                    .map(postings::get)
+                    .toList();
+            RoaringBitmap candidates = match == IngredientMatch.ALL
+                    ? FastAggregation.and(bitmaps.iterator())
+                    : FastAggregation.or(bitmaps.iterator());
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+
+            int[] matched = new int[candidates.getCardinality()];
+            for (RoaringBitmap bitmap : bitmaps) {
+                RoaringBitmap.and(bitmap, candidates)
+                        .forEach((int recipeId) -> matched[candidates.rank(recipeId) - 1]++);
+            }
+
+            List<Match> matches = new ArrayList<>(matched.length);
+            int index = 0;
+            for (int recipeId : candidates) {
+                int total = postings.ingredientCount(recipeId);
+                int covered = matched[index++];
+                if (match != IngredientMatch.MISSING || total - covered <= maxMissing) {
+                    matches.add(new Match(recipeId, covered, total));
+                }
+            }
+
+            return matches.stream()
+                    .sorted(Comparator.comparingDouble(Match::coverage).reversed()
+                            .thenComparing(Comparator.comparingInt(Match::covered).reversed())
+                            .thenComparing(Comparator.comparingInt(Match::recipeId).reversed()))
+                    .map(m -> (long) m.recipeId())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int toIndexId(Long recipeId) {
+        return Math.toIntExact(recipeId);
+    }
+
+    private static String normalize(String ingredient) {
+        return ingredient == null ? "" : ingredient.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private record Match(int recipeId, int covered, int total) {
+
+        double coverage() {
+            return (double) covered / total;
+        }
+    }
+
+    private record IndexedRecipe(int recipeId, Set<String> ingredients) {
+    }
+
+    private static class Postings {
+
+        private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+        private final Map<Integer, Set<String>> recipeIngredients = new HashMap<>();
+
+        RoaringBitmap get(String ingredient) {
+            return bitmaps.getOrDefault(ingredient, new RoaringBitmap());
+        }
+
+        int ingredientCount(int recipeId) {
+            return recipeIngredients.get(recipeId).size();
+        }
+
+        void optimize() {
+            bitmaps.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        void replace(IndexedRecipe recipe) {
+            remove(recipe.recipeId());
+            put(recipe.recipeId(), recipe.ingredients());
+        }
+
+        void put(int recipeId, Set<String> ingredients) {
+            if (ingredients.isEmpty()) {
+                return;
+            }
+
+            recipeIngredients.put(recipeId, ingredients);
+            ingredients.forEach(ingredient -> bitmaps.computeIfAbsent(ingredient, key -> new RoaringBitmap()).add(recipeId));
+        }
+
+        private void remove(int recipeId) {
+            Set<String> ingredients = recipeIngredients.remove(recipeId);
+            if (ingredients == null) {
+                return;
+            }
+
+            for (String ingredient : ingredients) {
+                RoaringBitmap bitmap = bitmaps.get(ingredient);
+                bitmap.remove(recipeId);
+                if (bitmap.isEmpty()) {
+                    bitmaps.remove(ingredient);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.service.interfaces.ImageStorage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+@Service
+@ConditionalOnProperty(name = "image.storage", havingValue = "local")
+public class LocalImageStorage implements ImageStorage {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}(-[a-z]+)?(\\.[a-z0-9]{1,5})?");
+
+    private final Path root;
+    private final String baseUrl;
+
+    public LocalImageStorage(@Value("${image.storage.local.root:images}") String root,
+                             @Value("${image.storage.local.base-url:/v1/images}") String baseUrl) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+        this.baseUrl = baseUrl;
+    }
+
+    @Override
+    public String store(String key, Path file) throws IOException {
+        Path target = resolve(key).orElseThrow(() -> new IllegalArgumentException("Invalid image key"));
+
+        // keys are content addressed, so an existing file already holds these bytes
+        if (Files.notExists(target)) {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), key, ".tmp");
+            try {
+                copy(file, temp);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException ignored) {
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        return baseUrl + "/" + key;
+    }
+
+    public Optional<Path> find(String key) {
+        return resolve(key).filter(Files::isRegularFile);
+    }
+
+    private Optional<Path> resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(root.resolve(key.substring(0, 2)).resolve(key));
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(true);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.entity.MailMessage;
+import dev.yerokha.cookscorner.repository.MailOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static dev.yerokha.cookscorner.util.ExecutorUtil.boundedExecutor;
+
+@Service
+public class MailOutboxWorker {
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailService mailService;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong pending = new AtomicLong();
+
+    public MailOutboxWorker(MailOutboxRepository mailOutboxRepository,
+                            MailService mailService,
+                            MeterRegistry meterRegistry,
+                            @Value("${mail.outbox.workers:2}") int workers,
+                            @Value("${mail.outbox.queue-capacity:50}") int queueCapacity,
+                            @Value("${mail.outbox.max-attempts:5}") int maxAttempts,
+                            @Value("${mail.outbox.backoff-seconds:30}") long backoffSeconds) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailService = mailService;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.backoff = Duration.ofSeconds(backoffSeconds);
+        // a claimed message is never rejected, with a full queue the poller sends it itself
+        this.executor = boundedExecutor("mail-outbox-", workers, queueCapacity);
+
+        Gauge.builder("mail.outbox.depth", pending, AtomicLong::get)
+                .description("Mails waiting in the outbox to be sent")
+                .register(meterRegistry);
+        Gauge.builder("mail.outbox.in-flight", executor, pool -> pool.getQueue().size() + pool.getActiveCount())
+                .description("Mails handed to the sender pool and not yet finished")
+                .register(meterRegistry);
+    }
+
+    // counting the whole outbox is too costly for every poll, the gauge is sampled less often
+    @Scheduled(fixedDelayString = "${mail.outbox.depth-sample-interval-ms:30000}")
+    public void sampleDepth() {
+        pending.set(mailOutboxRepository.countPending());
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        for (MailMessage message : mailOutboxRepository.findDue(now, PageRequest.of(0, capacity))) {
+            // the lease keeps other pollers off the message while it is being sent
+            if (mailOutboxRepository.claim(message.getMailId(), now, now.plus(LEASE)) == 1) {
+                executor.execute(() -> deliver(message));
+            }
+        }
+    }
+
+    private void deliver(MailMessage message) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailService.send(message);
+            mailOutboxRepository.deleteById(message.getMailId());
+            sample.stop(sendTimer("success"));
+        } catch (RuntimeException e) {
+            sample.stop(sendTimer("failure"));
+            retryLater(message, e);
+        }
+    }
+
+    private void retryLater(MailMessage message, RuntimeException e) {
+        int attempts = message.getAttempts() + 1;
+        message.setAttempts(attempts);
+        message.setLastError(e.getMessage() == null ? e.getClass().getName() : truncate(e.getMessage()));
+        message.setFailed(attempts >= maxAttempts);
+        message.setNextAttemptAt(Instant.now().plus(backoff(attempts)));
+        mailOutboxRepository.save(message);
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("mail.send")
+                .tag("outcome", outcome)
+                .description("Time spent rendering and sending a mail")
+                .register(meterRegistry);
+    }
+
+    private static String truncate(String error) {
+        return error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -1,5 +1,10 @@
 package dev.yerokha.cookscorner.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.entity.MailMessage;
+import dev.yerokha.cookscorner.repository.MailOutboxRepository;
 import dev.yerokha.cookscorner.service.interfaces.NotificationService;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
@@ -10,23 +15,29 @@ import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.time.Instant;
 import java.util.Map;
 
 @Service
 public class MailService implements NotificationService {
 
+    private static final TypeReference<Map<String, Object>> VARIABLES_TYPE = new TypeReference<>() {
+    };
+
     private final JavaMailSender mailSender;
-    private final SpringTemplateEngine engine;
+    private final MailTemplateRenderer renderer;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final ObjectMapper objectMapper;
     @Value("${GMAIL_USERNAME}")
     private String from;
 
     @Autowired
-    public MailService(JavaMailSender mailSender, SpringTemplateEngine engine) {
+    public MailService(JavaMailSender mailSender, MailTemplateRenderer renderer, MailOutboxRepository mailOutboxRepository, ObjectMapper objectMapper) {
         this.mailSender = mailSender;
-        this.engine = engine;
+        this.renderer = renderer;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.objectMapper = objectMapper;
     }
 
     @Override
@@ -40,35 +51,48 @@ public class MailService implements NotificationService {
             helper.setText(body, true);
             mailSender.send(message);
         } catch (MessagingException | MailException e) {
-            throw new MailSendException("Failed to send an email");
+            throw new MailSendException("Failed to send an email", e);
         }
     }
 
-    public void sendEmailConfirmation(String to, String confirmationUrl, String name) {
-        Context context = new Context();
-        context.setVariables(Map.of("confirmationUrl", confirmationUrl, "name", name));
+    public void send(MailMessage message) {
+        Map<String, Object> variables;
+        try {
+            variables = objectMapper.readValue(message.getVariables(), VARIABLES_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed mail variables", e);
+        }
 
-        String emailBody = engine.process("confirmation_email", context);
+        send(message.getRecipient(), message.getSubject(), renderer.render(message.getTemplate(), variables));
+    }
 
-        send(to, "Email confirmation", emailBody);
+    public void sendEmailConfirmation(String to, String confirmationUrl, String name) {
+        enqueue(to, "Email confirmation", MailTemplateRenderer.CONFIRMATION,
+                Map.of("confirmationUrl", confirmationUrl, "name", name));
     }
 
     public void sendPasswordReset(String to, String confirmationUrl, String name) {
-        Context context = new Context();
-        context.setVariables(Map.of("confirmationUrl", confirmationUrl, "name", name));
-
-        String emailBody = engine.process("reset_password_email", context);
-
-        send(to, "Password reset", emailBody);
+        enqueue(to, "Password reset", MailTemplateRenderer.PASSWORD_RESET,
+                Map.of("confirmationUrl", confirmationUrl, "name", name));
     }
 
     public void sendAccountRecoveryEmail(String to, String confirmationUrl, String name) {
-        Context context = new Context();
-        context.setVariables(Map.of("confirmationUrl", confirmationUrl, "name", name));
-
-        String emailBody = engine.process("account_recovery_email.html", context);
+        enqueue(to, "Email confirmation", MailTemplateRenderer.ACCOUNT_RECOVERY,
+                Map.of("confirmationUrl", confirmationUrl, "name", name));
+    }
 
-        send(to, "Email confirmation", emailBody);
+    // joins the caller's transaction, so the mail is only delivered if the surrounding change commits
+    private void enqueue(String to, String subject, String template, Map<String, Object> variables) {
+        try {
+            mailOutboxRepository.save(new MailMessage(
+                    to,
+                    subject,
+                    template,
+                    objectMapper.writeValueAsString(variables),
+                    Instant.now()
+            ));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed mail variables", e);
+        }
     }
 }
-
@@ -0,0 +1,74 @@
+package dev.yerokha.cookscorner.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class MailTemplateRenderer {
+
+    public static final String CONFIRMATION = "confirmation_email";
+    public static final String PASSWORD_RESET = "reset_password_email";
+    public static final String ACCOUNT_RECOVERY = "account_recovery_email";
+
+    private static final List<String> TEMPLATES = List.of(CONFIRMATION, PASSWORD_RESET, ACCOUNT_RECOVERY);
+    private static final String SUFFIX = ".html";
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private final SpringTemplateEngine engine;
+    private final ThreadLocal<StringWriter> buffers = ThreadLocal.withInitial(() -> new StringWriter(INITIAL_BUFFER_SIZE));
+
+    public MailTemplateRenderer() {
+        this(true);
+    }
+
+    MailTemplateRenderer(boolean cacheable) {
+        // a dedicated engine keeps mail templates cached even where devtools turns off view template caching
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(SUFFIX);
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        resolver.setCacheable(cacheable);
+        resolver.setCacheTTLMs(null);
+
+        this.engine = new SpringTemplateEngine();
+        this.engine.setTemplateResolver(resolver);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        TEMPLATES.forEach(template -> render(template, Map.of()));
+    }
+
+    public String render(String template, Map<String, Object> variables) {
+        Context context = new Context();
+        context.setVariables(variables);
+
+        StringWriter buffer = buffers.get();
+        buffer.getBuffer().setLength(0);
+        try {
+            engine.process(templateName(template), context, buffer);
+            return buffer.toString();
+        } finally {
+            if (buffer.getBuffer().capacity() > MAX_RETAINED_BUFFER_SIZE) {
+                buffers.remove();
+            }
+        }
+    }
+
+    // outbox rows written before the rendering layer existed may still carry the file suffix
+    private static String templateName(String template) {
+        return template.endsWith(SUFFIX) ? template.substring(0, template.length() - SUFFIX.length()) : template;
+    }
+}
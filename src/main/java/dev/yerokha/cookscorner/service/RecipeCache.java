@@ -0,0 +1,78 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.dto.Recipe;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
+
+@Service
+public class RecipeCache {
+
+    private static final String KEY_PREFIX = "recipe:";
+
+    private final RedisTemplate<String, Recipe> recipeRedisTemplate;
+    private final RecipeRepository recipeRepository;
+    private final Duration ttl;
+
+    public RecipeCache(RedisTemplate<String, Recipe> recipeRedisTemplate,
+                       RecipeRepository recipeRepository,
+                       @Value("${recipe.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.recipeRedisTemplate = recipeRedisTemplate;
+        this.recipeRepository = recipeRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    // a cache that cannot be read is treated as a miss so recipe pages keep working without Redis
+    public Recipe get(Long recipeId) {
+        try {
+            return recipeRedisTemplate.opsForValue().get(key(recipeId));
+        } catch (DataAccessException | SerializationException e) {
+            return null;
+        }
+    }
+
+    public void put(Recipe recipe) {
+        try {
+            recipeRedisTemplate.opsForValue().set(key(recipe.recipeId()), recipe, ttl);
+        } catch (DataAccessException | SerializationException ignored) {
+        }
+    }
+
+    public void evict(Long recipeId) {
+        evict(List.of(recipeId));
+    }
+
+    public void evict(Collection<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = recipeIds.stream()
+                .map(RecipeCache::key)
+                .toList();
+        // evicting before commit would let a concurrent reader cache the old row again
+        afterCommit(() -> {
+            try {
+                recipeRedisTemplate.delete(keys);
+            } catch (DataAccessException ignored) {
+            }
+        });
+    }
+
+    public void evictByAuthor(Long userId) {
+        evict(recipeRepository.findIdsByUserId(userId));
+    }
+
+    private static String key(Long recipeId) {
+        return KEY_PREFIX + recipeId;
+    }
+}
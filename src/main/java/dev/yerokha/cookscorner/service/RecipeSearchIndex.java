@@ -0,0 +1,243 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.entity.RecipeEntity;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
+
+// Every instance keeps its own copy of the index. Changes are applied locally and broadcast to the
+// other instances, and a periodic rebuild catches up on broadcasts an instance missed.
+@Service
+public class RecipeSearchIndex {
+
+    private static final String CHANNEL = "search:recipes:indexed";
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_TOKEN_LENGTH = 2;
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float INGREDIENT_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_PENALTY = 0.5f;
+
+    private final RecipeRepository recipeRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Postings postings = new Postings();
+    // changes applied while a rebuild reads the database, replayed onto the rebuilt postings
+    private List<IndexedRecipe> changesDuringRebuild;
+
+    public RecipeSearchIndex(RecipeRepository recipeRepository,
+                             RedisTemplate<String, String> redisTemplate,
+                             ObjectMapper objectMapper,
+                             RedisMessageListenerContainer listenerContainer) {
+        this.recipeRepository = recipeRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+
+        listenerContainer.addMessageListener((message, pattern) -> receive(message.getBody()), new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.recipes.rebuild-interval-ms:3600000}",
+            initialDelayString = "${search.recipes.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        setChangesDuringRebuild(new ArrayList<>());
+        Postings rebuilt = new Postings();
+        try {
+            Map<Long, List<String>> ingredients = new HashMap<>();
+            for (Object[] row : recipeRepository.findSearchableIngredients()) {
+                ingredients.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+            for (Object[] row : recipeRepository.findSearchableRecipes()) {
+                Long recipeId = (Long) row[0];
+                rebuilt.put(new IndexedRecipe(recipeId, (String) row[1], (String) row[2],
+                        ingredients.getOrDefault(recipeId, List.of())));
+            }
+        } catch (RuntimeException e) {
+            setChangesDuringRebuild(null);
+            throw e;
+        }
+
+        // searches keep using the old postings until the new ones are complete
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach(rebuilt::replace);
+            changesDuringRebuild = null;
+            postings = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(RecipeEntity recipe) {
+        IndexedRecipe indexed = new IndexedRecipe(recipe.getRecipeId(), recipe.getTitle(), recipe.getDescription(),
+                recipe.getRecipeIngredients().stream()
+                        .map(ri -> ri.getIngredientEntity().getIngredientName())
+                        .toList());
+
+        afterCommit(() -> {
+            apply(indexed);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(indexed));
+            } catch (DataAccessException | JsonProcessingException ignored) {
+            }
+        });
+    }
+
+    // this instance also receives its own broadcasts, applying a recipe twice leaves the same postings
+    private void receive(byte[] message) {
+        try {
+            apply(objectMapper.readValue(message, IndexedRecipe.class));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void apply(IndexedRecipe recipe) {
+        lock.writeLock().lock();
+        try {
+            postings.replace(recipe);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(recipe);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setChangesDuringRebuild(List<IndexedRecipe> changes) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        Set<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty()) {
+            // single characters are not indexed, but still find recipes with words starting with them
+            queryTerms = tokenize(query, 1);
+        }
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Float> termScores = postings.score(queryTerm);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((recipeId, score) -> score + termScores.get(recipeId));
+                }
+
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Float>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        return tokenize(text, MIN_TOKEN_LENGTH);
+    }
+
+    private static Set<String> tokenize(String text, int minLength) {
+        if (text == null || text.isBlank()) {
+            return Set.of();
+        }
+
+        return TOKEN_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(token -> token.length() >= minLength)
+                .collect(Collectors.toSet());
+    }
+
+    private record IndexedRecipe(Long recipeId, String title, String description, List<String> ingredients) {
+    }
+
+    private static class Postings {
+
+        private final NavigableMap<String, Map<Long, Float>> terms = new TreeMap<>();
+        private final Map<Long, Set<String>> documentTerms = new HashMap<>();
+
+        Map<Long, Float> score(String queryTerm) {
+            Map<Long, Float> scores = new HashMap<>();
+            int documents = documentTerms.size();
+            terms.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).forEach((term, recipes) -> {
+                float idf = (float) Math.log(1 + (double) documents / recipes.size());
+                float match = term.equals(queryTerm) ? 1f : PREFIX_PENALTY;
+                recipes.forEach((recipeId, weight) -> scores.merge(recipeId, weight * idf * match, Math::max));
+            });
+            return scores;
+        }
+
+        void replace(IndexedRecipe recipe) {
+            remove(recipe.recipeId());
+            put(recipe);
+        }
+
+        void put(IndexedRecipe recipe) {
+            Map<String, Float> weights = new HashMap<>();
+            tokenize(recipe.description()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Math::max));
+            recipe.ingredients().forEach(ingredient ->
+                    tokenize(ingredient).forEach(term -> weights.merge(term, INGREDIENT_WEIGHT, Math::max)));
+            tokenize(recipe.title()).forEach(term -> weights.merge(term, TITLE_WEIGHT, Math::max));
+
+            weights.forEach((term, weight) -> terms.computeIfAbsent(term, key -> new HashMap<>()).put(recipe.recipeId(), weight));
+            documentTerms.put(recipe.recipeId(), weights.keySet());
+        }
+
+        private void remove(Long recipeId) {
+            Set<String> recipeTerms = documentTerms.remove(recipeId);
+            if (recipeTerms == null) {
+                return;
+            }
+
+            for (String term : recipeTerms) {
+                Map<Long, Float> recipes = terms.get(term);
+                recipes.remove(recipeId);
+                if (recipes.isEmpty()) {
+                    terms.remove(term);
+                }
+            }
+        }
+    }
+}
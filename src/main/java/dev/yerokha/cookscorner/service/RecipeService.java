@@ -1,40 +1,53 @@
 package dev.yerokha.cookscorner.service;
 
 import dev.yerokha.cookscorner.dto.CreateRecipeRequest;
+import dev.yerokha.cookscorner.dto.CursorSlice;
 import dev.yerokha.cookscorner.dto.Ingredient;
 import dev.yerokha.cookscorner.dto.Recipe;
 import dev.yerokha.cookscorner.dto.RecipeDto;
 import dev.yerokha.cookscorner.dto.UpdateRecipeRequest;
 import dev.yerokha.cookscorner.entity.Category;
-import dev.yerokha.cookscorner.entity.CommentEntity;
 import dev.yerokha.cookscorner.entity.IngredientEntity;
 import dev.yerokha.cookscorner.entity.RecipeEntity;
 import dev.yerokha.cookscorner.entity.RecipeIngredient;
 import dev.yerokha.cookscorner.entity.UserEntity;
 import dev.yerokha.cookscorner.enums.Difficulty;
+import dev.yerokha.cookscorner.enums.ImageStatus;
+import dev.yerokha.cookscorner.enums.IngredientMatch;
+import dev.yerokha.cookscorner.enums.TrendingSignal;
 import dev.yerokha.cookscorner.exception.ForbiddenException;
 import dev.yerokha.cookscorner.exception.NotFoundException;
 import dev.yerokha.cookscorner.repository.CategoryRepository;
 import dev.yerokha.cookscorner.repository.IngredientRepository;
 import dev.yerokha.cookscorner.repository.RecipeRepository;
 import dev.yerokha.cookscorner.repository.UserRepository;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static dev.yerokha.cookscorner.mapper.RecipeMapper.toRecipeDto;
+import static dev.yerokha.cookscorner.util.CursorUtil.decodeCursor;
+import static dev.yerokha.cookscorner.util.CursorUtil.encodeCursor;
 import static java.lang.Integer.parseInt;
 
 @Service
@@ -46,14 +59,28 @@ public class RecipeService {
     private final ImageService imageService;
     private final IngredientRepository ingredientRepository;
     private final UserService userService;
-
-    public RecipeService(RecipeRepository recipeRepository, CategoryRepository categoryRepository, UserRepository userRepository, ImageService imageService, IngredientRepository ingredientRepository, UserService userService) {
+    private final ViewCountBuffer viewCountBuffer;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final RecipeCache recipeCache;
+    private final FeedCache feedCache;
+    private final TrendingRanking trendingRanking;
+    private final FollowingTimeline followingTimeline;
+    private final IngredientIndex ingredientIndex;
+
+    public RecipeService(RecipeRepository recipeRepository, CategoryRepository categoryRepository, UserRepository userRepository, ImageService imageService, IngredientRepository ingredientRepository, UserService userService, ViewCountBuffer viewCountBuffer, RecipeSearchIndex recipeSearchIndex, RecipeCache recipeCache, FeedCache feedCache, TrendingRanking trendingRanking, FollowingTimeline followingTimeline, IngredientIndex ingredientIndex) {
         this.recipeRepository = recipeRepository;
         this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.imageService = imageService;
         this.ingredientRepository = ingredientRepository;
         this.userService = userService;
+        this.viewCountBuffer = viewCountBuffer;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.recipeCache = recipeCache;
+        this.feedCache = feedCache;
+        this.trendingRanking = trendingRanking;
+        this.followingTimeline = followingTimeline;
+        this.ingredientIndex = ingredientIndex;
     }
 
     @Transactional
@@ -70,6 +97,12 @@ public class RecipeService {
         entity.setCookingTimeMinutes(request.cookingTimeMinutes());
 
         recipeRepository.save(entity);
+        userRepository.updateRecipeCount(userIdFromAuthToken, 1);
+        recipeSearchIndex.index(entity);
+        ingredientIndex.index(entity);
+        feedCache.invalidate();
+        trendingRanking.record(entity.getRecipeId(), TrendingSignal.NEW_RECIPE);
+        followingTimeline.publish(userIdFromAuthToken, entity.getUserEntity().getFollowerCount(), entity.getRecipeId());
     }
 
     private Category getCategory(String request) {
@@ -79,30 +112,58 @@ public class RecipeService {
     }
 
     public Recipe getRecipeById(Long recipeId, Long userIdFromAuthToken) {
-        RecipeEntity entity = recipeRepository.findById(recipeId).orElseThrow(
-                () -> new NotFoundException("Recipe not found"));
+        Recipe recipe = recipeCache.get(recipeId);
+        if (recipe == null) {
+            RecipeEntity entity = recipeRepository.findById(recipeId).orElseThrow(
+                    () -> new NotFoundException("Recipe not found"));
+            recipe = mapRecipe(null, recipeId, entity);
+
+            // a pending image gets its url later without touching the recipe, so such recipes are not cached yet
+            if (entity.getImage() == null || entity.getImage().getStatus() != ImageStatus.PENDING) {
+                recipeCache.put(recipe);
+            }
+        }
+
+        if (userIdFromAuthToken == null) {
+            return recipe;
+        }
 
-        return mapRecipe(userIdFromAuthToken, recipeId, entity);
+        return recipe.withViewerState(
+                checkLiked(recipeId, userIdFromAuthToken),
+                checkBookmarked(recipeId, userIdFromAuthToken));
     }
 
-    private int getTotalComments(List<CommentEntity> comments) {
-        int parentComments = comments.size();
-        int replyComments = comments.stream()
-                .mapToInt(comment -> comment.getReplies().size())
-                .sum();
-        return parentComments + replyComments;
+    public void incrementViewCount(Long id) {
+        viewCountBuffer.incrementRecipeViews(id);
+        trendingRanking.record(id, TrendingSignal.VIEW);
     }
 
+    @Scheduled(cron = "${recipe.counters.reconcile-cron:0 0 4 * * *}")
     @Transactional
-    public void incrementViewCount(Long id) {
-        recipeRepository.incrementViewCount(id);
+    public void reconcileCounters() {
+        recipeRepository.reconcileCounters();
     }
 
-    public Page<RecipeDto> getRecipes(Map<String, String> params, Long userIdFromAuthToken) {
+    public Slice<RecipeDto> getRecipes(Map<String, String> params, Long userIdFromAuthToken) {
         Pageable pageable = getPageable(params);
         String query = params.get("query");
 
+        String ingredients = params.get("ingredients");
+        if (ingredients != null && !ingredients.isBlank()) {
+            return getRecipesByIngredients(userIdFromAuthToken, ingredients, params, pageable);
+        }
+
         if (query == null || query.isEmpty()) {
+            if (params.containsKey("cursor")) {
+                long[] cursor = getRecipeCursor(params);
+                return toCursorSlice(withViewerState(recipeRepository.findRecipeCardsAfter(
+                        cursor[0], cursor[1], getCursorPageable(params)), userIdFromAuthToken));
+            }
+
+            if ("trending".equalsIgnoreCase(params.get("sort"))) {
+                return getTrendingRecipes(userIdFromAuthToken, pageable);
+            }
+
             return getPopularRecipes(userIdFromAuthToken, pageable);
         }
 
@@ -112,6 +173,7 @@ public class RecipeService {
             return switch (query) {
                 case "my" -> getUsersRecipes(userIdFromAuthToken, pageable);
                 case "saved" -> getSavedRecipes(userIdFromAuthToken, pageable);
+                case "following" -> getFollowingRecipes(userIdFromAuthToken, pageable);
                 default -> getRecipesByQuery(userIdFromAuthToken, query, pageable);
             };
         }
@@ -126,54 +188,126 @@ public class RecipeService {
                 Sort.by(Sort.Direction.DESC, "viewCount"));
     }
 
+    private static Pageable getCursorPageable(Map<String, String> params) {
+        return PageRequest.ofSize(parseInt(params.getOrDefault("size", "12")));
+    }
+
+    private static long[] getRecipeCursor(Map<String, String> params) {
+        String cursor = params.get("cursor");
+        if (cursor == null || cursor.isEmpty()) {
+            return new long[]{Long.MAX_VALUE, Long.MAX_VALUE};
+        }
+
+        return decodeCursor(cursor, 2);
+    }
+
+    private static CursorSlice<RecipeDto> toCursorSlice(Slice<RecipeDto> slice) {
+        return CursorSlice.of(slice, recipe -> encodeCursor(recipe.getViewCount(), recipe.getRecipeId()));
+    }
+
     private Page<RecipeDto> getRecipesByQuery(Long userIdFromAuthToken, String query, Pageable pageable) {
-        return recipeRepository.findByTitleContainingIgnoreCaseOrDescriptionContainingIgnoreCase(
-                query, query, pageable).map(entity -> {
-            Boolean isLiked = checkLiked(entity.getRecipeId(), userIdFromAuthToken);
-            Boolean isBookmarked = checkBookmarked(entity.getRecipeId(), userIdFromAuthToken);
-            return getRecipeDto(entity, isLiked, isBookmarked);
-        });
+        return getRankedPage(userIdFromAuthToken, recipeSearchIndex.search(query), pageable);
+    }
+
+    private Page<RecipeDto> getRecipesByIngredients(Long userIdFromAuthToken, String ingredients,
+                                                    Map<String, String> params, Pageable pageable) {
+        IngredientMatch match = IngredientMatch.valueOf(params.getOrDefault("match", "all").toUpperCase(Locale.ROOT));
+        int maxMissing = parseInt(params.getOrDefault("maxMissing", "1"));
+        if (maxMissing < 0) {
+            throw new IllegalArgumentException("maxMissing must not be negative");
+        }
+
+        List<Long> rankedIds = ingredientIndex.match(Arrays.asList(ingredients.split(",")), match, maxMissing);
+        return getRankedPage(userIdFromAuthToken, rankedIds, pageable);
+    }
+
+    private Page<RecipeDto> getRankedPage(Long userIdFromAuthToken, List<Long> rankedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        return getRankedRecipes(userIdFromAuthToken, rankedIds.subList(from, to), pageable, rankedIds.size());
+    }
+
+    private Page<RecipeDto> getTrendingRecipes(Long userIdFromAuthToken, Pageable pageable) {
+        List<Long> pageIds;
+        long total;
+        try {
+            pageIds = trendingRanking.getPage(pageable.getOffset(), pageable.getPageSize());
+            total = trendingRanking.size();
+        } catch (DataAccessException e) {
+            return getPopularRecipes(userIdFromAuthToken, pageable);
+        }
 
+        return getRankedRecipes(userIdFromAuthToken, pageIds, pageable, total);
+    }
+
+    private Slice<RecipeDto> getFollowingRecipes(Long userIdFromAuthToken, Pageable pageable) {
+        Slice<Long> pageIds = followingTimeline.getPage(userIdFromAuthToken, pageable);
+        return withViewerState(new SliceImpl<>(getCards(pageIds.getContent()), pageable, pageIds.hasNext()),
+                userIdFromAuthToken);
+    }
+
+    private Page<RecipeDto> getRankedRecipes(Long userIdFromAuthToken, List<Long> pageIds, Pageable pageable, long total) {
+        return withViewerState(new PageImpl<>(getCards(pageIds), pageable, total), userIdFromAuthToken);
+    }
+
+    private List<RecipeDto> getCards(List<Long> recipeIds) {
+        if (recipeIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, RecipeDto> cards = recipeRepository.findRecipeCardsByIds(recipeIds).stream()
+                .collect(Collectors.toMap(RecipeDto::getRecipeId, Function.identity()));
+        return recipeIds.stream()
+                .map(cards::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     private Page<RecipeDto> getSavedRecipes(Long userIdFromAuthToken, Pageable pageable) {
-        return recipeRepository.findByBookmarksUserId(userIdFromAuthToken, pageable).map(entity -> {
-            Boolean isLiked = checkLiked(entity.getRecipeId(), userIdFromAuthToken);
-            Boolean isBookmarked = true;
-            return getRecipeDto(entity, isLiked, isBookmarked);
-        });
+        return withViewerState(recipeRepository.findBookmarkedRecipeCards(userIdFromAuthToken, pageable),
+                userIdFromAuthToken);
     }
 
     private Page<RecipeDto> getUsersRecipes(Long userIdFromAuthToken, Pageable pageable) {
-        return recipeRepository.findByUserEntityUserId(userIdFromAuthToken, pageable).map(entity -> {
-            Boolean isLiked = checkLiked(entity.getRecipeId(), userIdFromAuthToken);
-            Boolean isBookmarked = checkBookmarked(entity.getRecipeId(), userIdFromAuthToken);
-            return getRecipeDto(entity, isLiked, isBookmarked);
-        });
+        return withViewerState(recipeRepository.findRecipeCardsByUserId(userIdFromAuthToken, pageable),
+                userIdFromAuthToken);
     }
 
     private Page<RecipeDto> getPopularRecipes(Long userIdFromAuthToken, Pageable pageable) {
-        return recipeRepository.findAll(pageable).map(entity -> {
-            Boolean isLiked = checkLiked(entity.getRecipeId(), userIdFromAuthToken);
-            Boolean isBookmarked = checkBookmarked(entity.getRecipeId(), userIdFromAuthToken);
-            return getRecipeDto(entity, isLiked, isBookmarked);
-        });
+        return withViewerState(feedCache.getPopular(pageable), userIdFromAuthToken);
     }
 
-    public Page<RecipeDto> getByCategory(Long categoryId, Long userIdFromAuthToken, Map<String, String> params) {
+    public Slice<RecipeDto> getByCategory(Long categoryId, Long userIdFromAuthToken, Map<String, String> params) {
+        if (params.containsKey("cursor")) {
+            long[] cursor = getRecipeCursor(params);
+            return toCursorSlice(withViewerState(recipeRepository.findRecipeCardsByCategoryIdAfter(
+                    categoryId, cursor[0], cursor[1], getCursorPageable(params)), userIdFromAuthToken));
+        }
+
         Pageable pageable = getPageable(params);
-        return recipeRepository.findAllByCategoryCategoryId(categoryId, pageable).map(entity -> {
-            Boolean isLiked = checkLiked(entity.getRecipeId(), userIdFromAuthToken);
-            Boolean isBookmarked = checkBookmarked(entity.getRecipeId(), userIdFromAuthToken);
-            return getRecipeDto(entity, isLiked, isBookmarked);
-        });
+        return withViewerState(feedCache.getByCategory(categoryId, pageable), userIdFromAuthToken);
     }
 
-    private RecipeDto getRecipeDto(RecipeEntity entity, Boolean isLiked, Boolean isBookmarked) {
-        RecipeDto dto = toRecipeDto(entity);
-        dto.setIsLiked(isLiked);
-        dto.setIsBookmarked(isBookmarked);
-        return dto;
+    private <S extends Slice<RecipeDto>> S withViewerState(S recipes, Long userIdFromAuthToken) {
+        setViewerState(recipes.getContent(), userIdFromAuthToken);
+        return recipes;
+    }
+
+    private void setViewerState(List<RecipeDto> recipes, Long userIdFromAuthToken) {
+        if (userIdFromAuthToken == null || recipes.isEmpty()) {
+            return;
+        }
+
+        List<Long> recipeIds = recipes.stream()
+                .map(RecipeDto::getRecipeId)
+                .toList();
+        Set<Long> likedIds = userRepository.findLikedRecipeIds(userIdFromAuthToken, recipeIds);
+        Set<Long> bookmarkedIds = userRepository.findBookmarkedRecipeIds(userIdFromAuthToken, recipeIds);
+
+        for (RecipeDto recipe : recipes) {
+            recipe.setIsLiked(likedIds.contains(recipe.getRecipeId()));
+            recipe.setIsBookmarked(bookmarkedIds.contains(recipe.getRecipeId()));
+        }
     }
 
     private Boolean checkBookmarked(Long recipeId, Long userIdFromAuthToken) {
@@ -212,12 +346,7 @@ public class RecipeService {
         Pageable pageable = PageRequest.of(
                 parseInt(params.getOrDefault("page", "0")),
                 parseInt(params.getOrDefault("size", "12")));
-        return recipeRepository.findByUserEntityUserId(userId, pageable).map(recipeEntity -> {
-            Boolean isLiked = checkLiked(recipeEntity.getRecipeId(), userIdFromAuthToken);
-            Boolean isBookmarked = checkBookmarked(recipeEntity.getRecipeId(), userIdFromAuthToken);
-            return getRecipeDto(recipeEntity, isLiked, isBookmarked);
-        });
-
+        return withViewerState(recipeRepository.findRecipeCardsByUserId(userId, pageable), userIdFromAuthToken);
     }
 
     public Recipe updateRecipe(Long userIdFromAuthToken, UpdateRecipeRequest request, MultipartFile image) {
@@ -246,6 +375,10 @@ public class RecipeService {
         recipe.setUpdatedAt(LocalDateTime.now());
 
         recipeRepository.save(recipe);
+        recipeSearchIndex.index(recipe);
+        ingredientIndex.index(recipe);
+        recipeCache.evict(recipeId);
+        feedCache.invalidate();
 
         return mapRecipe(userIdFromAuthToken, recipeId, recipe);
     }
@@ -268,9 +401,9 @@ public class RecipeService {
                 recipe.getCookingTimeMinutes(),
                 recipe.getDifficulty().name(),
                 recipe.getDescription(),
-                recipe.getLikes().size(),
-                recipe.getBookmarks().size(),
-                getTotalComments(recipe.getComments()),
+                recipe.getLikeCount(),
+                recipe.getBookmarkCount(),
+                recipe.getCommentCount(),
                 isLiked,
                 isBookmarked,
                 recipe.getRecipeIngredients().stream()
@@ -6,6 +6,7 @@ import dev.yerokha.cookscorner.entity.UserEntity;
 import dev.yerokha.cookscorner.enums.TokenType;
 import dev.yerokha.cookscorner.exception.InvalidTokenException;
 import dev.yerokha.cookscorner.repository.TokenRepository;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -17,8 +18,9 @@ import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -27,7 +29,9 @@ import static dev.yerokha.cookscorner.util.RedisUtil.deleteKey;
 import static dev.yerokha.cookscorner.util.RedisUtil.getValue;
 import static dev.yerokha.cookscorner.util.RedisUtil.setValue;
 import static dev.yerokha.cookscorner.util.TokenEncryptionUtil.decryptToken;
+import static dev.yerokha.cookscorner.util.TokenEncryptionUtil.digestToken;
 import static dev.yerokha.cookscorner.util.TokenEncryptionUtil.encryptToken;
+import static dev.yerokha.cookscorner.util.TokenEncryptionUtil.legacyDigestToken;
 
 @Service
 public class TokenService {
@@ -35,14 +39,17 @@ public class TokenService {
     private final JwtEncoder jwtEncoder;
     private final JwtDecoder jwtDecoder;
     private final TokenRepository tokenRepository;
+    private final AccessTokenCache accessTokenCache;
     private static final int expirationMinutes = 5;
     private static final int ACCESS_TOKEN_EXPIRATION = expirationMinutes * 3;
     private static final int REFRESH_TOKEN_EXPIRATION = expirationMinutes * 12 * 24 * 7;
+    private static final int PURGE_BATCH_SIZE = 1000;
 
-    public TokenService(JwtEncoder jwtEncoder, JwtDecoder jwtDecoder, TokenRepository tokenRepository) {
+    public TokenService(JwtEncoder jwtEncoder, JwtDecoder jwtDecoder, TokenRepository tokenRepository, AccessTokenCache accessTokenCache) {
         this.jwtEncoder = jwtEncoder;
         this.jwtDecoder = jwtDecoder;
         this.tokenRepository = tokenRepository;
+        this.accessTokenCache = accessTokenCache;
     }
 
     public String generateConfirmationToken(UserEntity entity) {
@@ -71,17 +78,24 @@ public class TokenService {
                 encryptToken(accessToken),
                 ACCESS_TOKEN_EXPIRATION,
                 TimeUnit.MINUTES);
+        accessTokenCache.invalidate(entity.getUsername());
         return accessToken;
     }
 
     public String generateRefreshToken(UserEntity entity) {
-        String token = generateToken(entity, REFRESH_TOKEN_EXPIRATION, TokenType.REFRESH);
-        String encryptedToken = encryptToken("Bearer " + token);
+        String tokenId = UUID.randomUUID().toString();
+        String scopes = getScopes(entity);
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.from(getClaims(now, REFRESH_TOKEN_EXPIRATION, entity.getUsername(),
+                        entity.getUserId(), scopes, TokenType.REFRESH, entity.getName()))
+                .id(tokenId)
+                .build();
+        String token = encodeToken(claims);
         RefreshToken refreshToken = new RefreshToken(
-                encryptedToken,
+                digestToken(tokenId),
                 entity,
-                Instant.now(),
-                Instant.now().plus(REFRESH_TOKEN_EXPIRATION, ChronoUnit.MINUTES)
+                now,
+                now.plus(REFRESH_TOKEN_EXPIRATION, ChronoUnit.MINUTES)
         );
         tokenRepository.save(refreshToken);
         return token;
@@ -122,7 +136,7 @@ public class TokenService {
         return decodeToken(token).getSubject();
     }
 
-    private Jwt decodeToken(String token) {
+    public Jwt decodeToken(String token) {
         if (!token.startsWith("Bearer ")) {
             throw new InvalidTokenException("Invalid token format");
         }
@@ -156,7 +170,7 @@ public class TokenService {
             throw new InvalidTokenException("Refresh token expired");
         }
 
-        if (isRevoked(refreshToken, email)) {
+        if (isRevoked(refreshToken, decodedToken)) {
             throw new InvalidTokenException("Token is revoked");
         }
 
@@ -169,6 +183,7 @@ public class TokenService {
         String token = encodeToken(claims);
         String key = "access_token:" + email;
         setValue(key, encryptToken(token), ACCESS_TOKEN_EXPIRATION, TimeUnit.MINUTES);
+        accessTokenCache.invalidate(email);
         return new LoginResponse(
                 token,
                 refreshToken.substring(7),
@@ -179,19 +194,31 @@ public class TokenService {
 
     }
 
-    private boolean isRevoked(String refreshToken, String email) {
-        List<RefreshToken> tokenList = tokenRepository.findNotRevokedByEmail(email);
-        if (tokenList.isEmpty()) {
-            return true;
-        }
+    private boolean isRevoked(String refreshToken, Jwt decodedToken) {
+        return findNotRevoked(refreshToken, decodedToken).isEmpty();
+    }
 
-        for (RefreshToken token : tokenList) {
-            if (refreshToken.equals(decryptToken(token.getToken()))) {
-                return false;
+    private Optional<RefreshToken> findNotRevoked(String refreshToken, Jwt decodedToken) {
+        if (decodedToken.getId() != null) {
+            String digest = digestToken(decodedToken.getId());
+            Optional<RefreshToken> token = tokenRepository.findNotRevokedByDigest(digest);
+            if (token.isPresent()) {
+                return token;
             }
+
+            // tokens digested with the encryption key are moved to the derived key on first use
+            token = tokenRepository.findNotRevokedByDigest(legacyDigestToken(decodedToken.getId()));
+            token.ifPresent(legacy -> {
+                legacy.setTokenDigest(digest);
+                tokenRepository.save(legacy);
+            });
+            return token;
         }
 
-        return true;
+        // refresh tokens issued before digests were stored are matched by decrypting them
+        return tokenRepository.findNotRevokedLegacyByEmail(decodedToken.getSubject()).stream()
+                .filter(token -> refreshToken.equals(decryptToken(token.getToken())))
+                .findFirst();
     }
 
     private boolean isExpired(Jwt decodedToken) {
@@ -199,26 +226,33 @@ public class TokenService {
     }
 
     public void revokeToken(String token) {
-        String email = decodeToken(token).getSubject();
+        Jwt decodedToken = decodeToken(token);
+        String email = decodedToken.getSubject();
         String key = "access_token:" + email;
         if (containsKey(key)) {
             deleteKey(key);
+            accessTokenCache.invalidate(email);
             return;
         }
-        List<RefreshToken> notRevokedByUsername = tokenRepository.findNotRevokedByEmail(email);
-        for (RefreshToken refreshToken : notRevokedByUsername) {
-            if (token.equals(decryptToken(refreshToken.getToken()))) {
-                refreshToken.setRevoked(true);
-                tokenRepository.save(refreshToken);
-                return;
-            }
-        }
+
+        findNotRevoked(token, decodedToken).ifPresent(refreshToken -> {
+            refreshToken.setRevoked(true);
+            tokenRepository.save(refreshToken);
+        });
     }
 
     public void revokeAllTokens(String email) {
         deleteKey("access_token:" + email);
-        List<RefreshToken> notRevokedByUsername = tokenRepository.findNotRevokedByEmail(email);
-        notRevokedByUsername.forEach(token -> token.setRevoked(true));
-        tokenRepository.saveAll(notRevokedByUsername);
+        accessTokenCache.invalidate(email);
+        tokenRepository.revokeAllByEmail(email);
+    }
+
+    @Scheduled(cron = "${token.purge-cron:0 30 3 * * *}")
+    public void purgeRefreshTokens() {
+        Instant now = Instant.now();
+        int deleted;
+        do {
+            deleted = tokenRepository.deleteExpiredOrRevoked(now, PURGE_BATCH_SIZE);
+        } while (deleted == PURGE_BATCH_SIZE);
     }
 }
@@ -0,0 +1,174 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.enums.TrendingSignal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
+
+// Scores use forward decay: an event at time t adds weight * 2^((t - epoch) / halfLife), so older
+// events lose half their relative weight every half-life without ever rewriting existing scores.
+// The periodic rebase moves the epoch forward to keep the numbers small and trims the tail.
+// A retraction is applied at today's boost, which takes back more than an old signal ever added,
+// so a score that would drop to zero or below is removed instead of sinking the recipe.
+@Service
+public class TrendingRanking {
+
+    private static final String RANKING_KEY = "trending:recipes";
+    private static final String EPOCH_KEY = "trending:epoch";
+
+    private static final RedisScript<Long> INCREMENT = new DefaultRedisScript<>("""
+            local epoch = tonumber(redis.call('GET', KEYS[2]))
+            if not epoch then
+                epoch = tonumber(ARGV[1])
+                redis.call('SET', KEYS[2], ARGV[1])
+            end
+            local boost = math.pow(2, (tonumber(ARGV[1]) - epoch) / tonumber(ARGV[2]))
+            for i = 3, #ARGV, 2 do
+                local score = tonumber(redis.call('ZINCRBY', KEYS[1], tonumber(ARGV[i + 1]) * boost, ARGV[i]))
+                if score <= 0 then
+                    redis.call('ZREM', KEYS[1], ARGV[i])
+                end
+            end
+            return (#ARGV - 2) / 2
+            """, Long.class);
+
+    private static final RedisScript<Long> REBASE = new DefaultRedisScript<>("""
+            local epoch = tonumber(redis.call('GET', KEYS[2]))
+            if not epoch then
+                return 0
+            end
+            local factor = math.pow(2, (epoch - tonumber(ARGV[1])) / tonumber(ARGV[2]))
+            redis.call('ZUNIONSTORE', KEYS[1], 1, KEYS[1], 'WEIGHTS', tostring(factor))
+            redis.call('SET', KEYS[2], ARGV[1])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', '(' .. ARGV[3])
+            redis.call('ZREMRANGEBYRANK', KEYS[1], 0, -tonumber(ARGV[4]) - 1)
+            return redis.call('ZCARD', KEYS[1])
+            """, Long.class);
+
+    private final ConcurrentMap<Long, DoubleAdder> pending = new ConcurrentHashMap<>();
+    private final RedisTemplate<String, String> redisTemplate;
+    private final long halfLifeMillis;
+    private final double minScore;
+    private final long maxSize;
+
+    public TrendingRanking(RedisTemplate<String, String> redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${trending.half-life-hours:24}") long halfLifeHours,
+                           @Value("${trending.min-score:0.5}") double minScore,
+                           @Value("${trending.max-size:100000}") long maxSize) {
+        this.redisTemplate = redisTemplate;
+        this.halfLifeMillis = Duration.ofHours(halfLifeHours).toMillis();
+        this.minScore = minScore;
+        this.maxSize = maxSize;
+        Gauge.builder("trending.pending", pending, ConcurrentMap::size)
+                .description("Recipes with trending signals not yet flushed to Redis")
+                .register(meterRegistry);
+    }
+
+    public void record(Long recipeId, TrendingSignal signal) {
+        add(recipeId, signal.getWeight());
+    }
+
+    public void retract(Long recipeId, TrendingSignal signal) {
+        add(recipeId, -signal.getWeight());
+    }
+
+    private void add(Long recipeId, double weight) {
+        if (recipeId == null) {
+            return;
+        }
+
+        afterCommit(() -> {
+            DoubleAdder adder = pending.computeIfAbsent(recipeId, key -> new DoubleAdder());
+            adder.add(weight);
+            // a flush may have dropped the adder as idle meanwhile; the signal then moves to the adder in the map
+            if (pending.get(recipeId) != adder) {
+                double moved = adder.sumThenReset();
+                if (moved != 0) {
+                    pending.computeIfAbsent(recipeId, key -> new DoubleAdder()).add(moved);
+                }
+            }
+        });
+    }
+
+    public List<Long> getPage(long offset, int size) {
+        Set<String> members = redisTemplate.opsForZSet().reverseRange(RANKING_KEY, offset, offset + size - 1);
+        if (members == null) {
+            return List.of();
+        }
+
+        return members.stream()
+                .map(Long::valueOf)
+                .toList();
+    }
+
+    public long size() {
+        Long size = redisTemplate.opsForZSet().zCard(RANKING_KEY);
+        return size == null ? 0 : size;
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${trending.flush-interval-ms:5000}")
+    public void flush() {
+        List<Long> recipeIds = new ArrayList<>();
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(String.valueOf(halfLifeMillis));
+        for (Map.Entry<Long, DoubleAdder> entry : pending.entrySet()) {
+            Long recipeId = entry.getKey();
+            DoubleAdder adder = entry.getValue();
+            // resetting swaps each cell, so a signal either lands in this weight or stays for the next flush
+            double weight = adder.sumThenReset();
+            if (weight == 0 && pending.remove(recipeId, adder)) {
+                // the adder sat idle since the last flush; signals that hit it before the removal go out now
+                weight = adder.sumThenReset();
+            }
+            if (weight != 0) {
+                recipeIds.add(recipeId);
+                args.add(recipeId.toString());
+                args.add(String.valueOf(weight));
+            }
+        }
+
+        if (recipeIds.isEmpty()) {
+            return;
+        }
+
+        try {
+            redisTemplate.execute(INCREMENT, List.of(RANKING_KEY, EPOCH_KEY), args.toArray());
+        } catch (DataAccessException e) {
+            for (int i = 0; i < recipeIds.size(); i++) {
+                pending.computeIfAbsent(recipeIds.get(i), key -> new DoubleAdder())
+                        .add(Double.parseDouble(args.get(3 + i * 2)));
+            }
+            throw e;
+        }
+    }
+
+    @Scheduled(cron = "${trending.rebase-cron:0 15 * * * *}")
+    public void rebase() {
+        redisTemplate.execute(REBASE, List.of(RANKING_KEY, EPOCH_KEY),
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(halfLifeMillis),
+                String.valueOf(minScore),
+                String.valueOf(maxSize));
+    }
+}
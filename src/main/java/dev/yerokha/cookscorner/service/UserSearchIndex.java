@@ -0,0 +1,256 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.entity.UserEntity;
+import dev.yerokha.cookscorner.repository.UserRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static dev.yerokha.cookscorner.util.TransactionUtil.afterCommit;
+
+// Like RecipeSearchIndex, every instance keeps a copy that is updated from broadcast changes and
+// periodically rebuilt. Changes carry absolute values, so applying one twice is harmless.
+@Service
+public class UserSearchIndex {
+
+    private static final String CHANNEL = "search:users:changed";
+    private static final int GRAM_SIZE = 3;
+
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Users users = new Users();
+    // changes applied while a rebuild reads the database, replayed onto the rebuilt users
+    private List<UserChange> changesDuringRebuild;
+
+    public UserSearchIndex(UserRepository userRepository,
+                           RedisTemplate<String, String> redisTemplate,
+                           ObjectMapper objectMapper,
+                           RedisMessageListenerContainer listenerContainer) {
+        this.userRepository = userRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+
+        listenerContainer.addMessageListener((message, pattern) -> receive(message.getBody()), new ChannelTopic(CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${search.users.rebuild-interval-ms:3600000}",
+            initialDelayString = "${search.users.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        setChangesDuringRebuild(new ArrayList<>());
+        Users rebuilt = new Users();
+        try {
+            for (Object[] row : userRepository.findSearchableUsers()) {
+                rebuilt.put((Long) row[0], (String) row[1], (String) row[2], ((Number) row[3]).intValue());
+            }
+        } catch (RuntimeException e) {
+            setChangesDuringRebuild(null);
+            throw e;
+        }
+
+        // searches keep using the old users until the new ones are complete
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild.forEach(rebuilt::apply);
+            changesDuringRebuild = null;
+            users = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(UserEntity user) {
+        publish(new UserChange(ChangeType.INDEXED, user.getUserId(), user.getName(), user.getBio(), 0));
+    }
+
+    public void remove(UserEntity user) {
+        publish(new UserChange(ChangeType.REMOVED, user.getUserId(), null, null, 0));
+    }
+
+    public void updateFollowers(Long userId, int followers) {
+        publish(new UserChange(ChangeType.FOLLOWERS, userId, null, null, followers));
+    }
+
+    private void publish(UserChange change) {
+        afterCommit(() -> {
+            apply(change);
+            try {
+                redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(change));
+            } catch (DataAccessException | JsonProcessingException ignored) {
+            }
+        });
+    }
+
+    private void receive(byte[] message) {
+        try {
+            apply(objectMapper.readValue(message, UserChange.class));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void apply(UserChange change) {
+        lock.writeLock().lock();
+        try {
+            users.apply(change);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void setChangesDuringRebuild(List<UserChange> changes) {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query) {
+        String term = normalize(query);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return users.search(term);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.strip().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private record SearchableUser(String name, String bio, int followers) {
+
+        boolean matches(String term) {
+            return name.contains(term) || bio.contains(term);
+        }
+
+        Set<String> grams() {
+            Set<String> grams = UserSearchIndex.grams(name);
+            grams.addAll(UserSearchIndex.grams(bio));
+            return grams;
+        }
+
+        SearchableUser withFollowers(int followers) {
+            return new SearchableUser(name, bio, followers);
+        }
+    }
+
+    private enum ChangeType {
+        INDEXED, REMOVED, FOLLOWERS
+    }
+
+    private record UserChange(ChangeType type, Long userId, String name, String bio, int followers) {
+    }
+
+    private static class Users {
+
+        private final Map<String, Set<Long>> trigrams = new HashMap<>();
+        private final Map<Long, SearchableUser> users = new HashMap<>();
+
+        List<Long> search(String term) {
+            Collection<Long> candidates = term.length() < GRAM_SIZE ? users.keySet() : candidates(term);
+
+            return candidates.stream()
+                    .filter(userId -> users.get(userId).matches(term))
+                    .sorted(Comparator.comparingInt((Long userId) -> users.get(userId).followers()).reversed()
+                            .thenComparing(Comparator.naturalOrder()))
+                    .toList();
+        }
+
+        void apply(UserChange change) {
+            switch (change.type()) {
+                case INDEXED -> {
+                    SearchableUser previous = remove(change.userId());
+                    put(change.userId(), change.name(), change.bio(), previous == null ? 0 : previous.followers());
+                }
+                case REMOVED -> remove(change.userId());
+                case FOLLOWERS -> users.computeIfPresent(change.userId(),
+                        (id, user) -> user.withFollowers(change.followers()));
+            }
+        }
+
+        private Collection<Long> candidates(String term) {
+            Set<Long> candidates = null;
+            for (String gram : grams(term)) {
+                Set<Long> postings = trigrams.get(gram);
+                if (postings == null) {
+                    return Set.of();
+                }
+
+                if (candidates == null) {
+                    candidates = new HashSet<>(postings);
+                } else {
+                    candidates.retainAll(postings);
+                }
+
+                if (candidates.isEmpty()) {
+                    return Set.of();
+                }
+            }
+
+            return candidates;
+        }
+
+        private void put(Long userId, String name, String bio, int followers) {
+            SearchableUser user = new SearchableUser(normalize(name), normalize(bio), followers);
+            users.put(userId, user);
+            user.grams().forEach(gram -> trigrams.computeIfAbsent(gram, key -> new HashSet<>()).add(userId));
+        }
+
+        private SearchableUser remove(Long userId) {
+            SearchableUser user = users.remove(userId);
+            if (user == null) {
+                return null;
+            }
+
+            for (String gram : user.grams()) {
+                Set<Long> postings = trigrams.get(gram);
+                postings.remove(userId);
+                if (postings.isEmpty()) {
+                    trigrams.remove(gram);
+                }
+            }
+
+            return user;
+        }
+    }
+}
@@ -6,13 +6,16 @@ import dev.yerokha.cookscorner.dto.User;
 import dev.yerokha.cookscorner.dto.UserDto;
 import dev.yerokha.cookscorner.entity.Image;
 import dev.yerokha.cookscorner.entity.UserEntity;
+import dev.yerokha.cookscorner.enums.ImageVariant;
 import dev.yerokha.cookscorner.exception.FollowException;
 import dev.yerokha.cookscorner.exception.IdMismatchException;
 import dev.yerokha.cookscorner.exception.NotFoundException;
 import dev.yerokha.cookscorner.repository.UserRepository;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -21,10 +24,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static java.lang.Integer.parseInt;
 
@@ -35,12 +40,20 @@ public class UserService implements UserDetailsService {
     private final ImageService imageService;
     private final PasswordEncoder passwordEncoder;
     private final TokenService tokenService;
+    private final ViewCountBuffer viewCountBuffer;
+    private final UserSearchIndex userSearchIndex;
+    private final RecipeCache recipeCache;
+    private final FollowingTimeline followingTimeline;
 
-    public UserService(UserRepository userRepository, ImageService imageService, PasswordEncoder passwordEncoder, TokenService tokenService) {
+    public UserService(UserRepository userRepository, ImageService imageService, PasswordEncoder passwordEncoder, TokenService tokenService, ViewCountBuffer viewCountBuffer, UserSearchIndex userSearchIndex, RecipeCache recipeCache, FollowingTimeline followingTimeline) {
         this.userRepository = userRepository;
         this.imageService = imageService;
         this.passwordEncoder = passwordEncoder;
         this.tokenService = tokenService;
+        this.viewCountBuffer = viewCountBuffer;
+        this.userSearchIndex = userSearchIndex;
+        this.recipeCache = recipeCache;
+        this.followingTimeline = followingTimeline;
     }
 
     @Override
@@ -70,10 +83,10 @@ public class UserService implements UserDetailsService {
                 entity.getUserId(),
                 entity.getName(),
                 entity.getBio(),
-                entity.getProfilePicture() == null ? null : entity.getProfilePicture().getImageUrl(),
-                entity.getRecipeEntities().size(),
-                entity.getFollowers().size(),
-                entity.getFollowing().size(),
+                entity.getProfilePicture() == null ? null : entity.getProfilePicture().getUrl(ImageVariant.CARD),
+                entity.getRecipeCount(),
+                entity.getFollowerCount(),
+                entity.getFollowingCount(),
                 isFollowed,
                 entity.isDeleted()
         );
@@ -87,57 +100,42 @@ public class UserService implements UserDetailsService {
         return userRepository.existsByUserIdAndFollowingUserId(userIdFromAuthToken, userId);
     }
 
+    @Transactional
     public void follow(Long userId, Long userIdFromAuthToken) {
         if (Objects.equals(userId, userIdFromAuthToken)) {
             throw new FollowException("You can not follow yourself");
         }
 
-        Optional<UserEntity> userOptional = userRepository.findById(userId);
-        if (userOptional.isPresent() && userOptional.get().isDeleted()) {
+        if (getUserEntityById(userId).isDeleted()) {
             throw new FollowException("You can not follow a deleted user");
         }
 
-        UserEntity loggedInUser = getUserEntityById(userIdFromAuthToken);
-
-        //noinspection OptionalGetWithoutIsPresent
-        UserEntity followedUser = userOptional.get();
-
-        Set<UserEntity> followingList = loggedInUser.getFollowing();
-        Set<UserEntity> followersList = followedUser.getFollowers();
-
-        // Add the followed user to the following list
-        followingList.add(followedUser);
-        loggedInUser.setFollowing(followingList);
-
-        // Add the current user to the followers list of the followee
-        followersList.add(loggedInUser);
-        followedUser.setFollowers(followersList);
-
-        // Update both users
-        userRepository.save(loggedInUser);
-        userRepository.save(followedUser);
-
+        if (userRepository.insertFollow(userIdFromAuthToken, userId) > 0) {
+            updateFollowCounters(userId, userIdFromAuthToken, 1);
+        }
     }
 
+    @Transactional
     public void unfollow(Long userId, Long userIdFromAuthToken) {
-        UserEntity loggedInUser = getUserEntityById(userIdFromAuthToken);
-
-        UserEntity followedUser = getUserEntityById(userId);
-
-        Set<UserEntity> followingList = loggedInUser.getFollowing();
-        Set<UserEntity> followersList = followedUser.getFollowers();
-
-        // Remove the followed user from the following list
-        followingList.remove(followedUser);
-        loggedInUser.setFollowing(followingList);
+        if (userRepository.deleteFollow(userIdFromAuthToken, userId) > 0) {
+            updateFollowCounters(userId, userIdFromAuthToken, -1);
+        }
+    }
 
-        // Remove the current user from the followers list of the followee
-        followersList.remove(loggedInUser);
-        followedUser.setFollowers(followersList);
+    private void updateFollowCounters(Long userId, Long userIdFromAuthToken, int delta) {
+        userRepository.updateFollowerCount(userId, delta);
+        userRepository.updateFollowingCount(userIdFromAuthToken, delta);
+        int followerCount = userRepository.getFollowerCount(userId);
+        userSearchIndex.updateFollowers(userId, followerCount);
+        // the timeline is rebuilt on the next read with the followee's older recipes added or removed
+        followingTimeline.invalidate(userIdFromAuthToken);
+        followingTimeline.followersChanged(userId, followerCount, delta);
+    }
 
-        // Update both users
-        userRepository.save(loggedInUser);
-        userRepository.save(followedUser);
+    @Scheduled(cron = "${user.counters.reconcile-cron:0 0 4 * * *}")
+    @Transactional
+    public void reconcileCounters() {
+        userRepository.reconcileCounters();
     }
 
     public UserEntity getUserEntityById(Long userIdFromAuthToken) {
@@ -159,12 +157,15 @@ public class UserService implements UserDetailsService {
         }
 
         userRepository.save(entity);
+        userSearchIndex.index(entity);
+        // cached recipe detail carries the author's name
+        recipeCache.evictByAuthor(entity.getUserId());
 
         return new UpdateProfileResponse(
                 entity.getUserId(),
                 entity.getName(),
                 entity.getBio(),
-                entity.getProfilePicture() == null ? null : entity.getProfilePicture().getImageUrl()
+                entity.getProfilePicture() == null ? null : entity.getProfilePicture().getUrl(ImageVariant.CARD)
         );
     }
 
@@ -175,8 +176,19 @@ public class UserService implements UserDetailsService {
             return userRepository.findAllSortedByFollowersCount(pageable)
                     .map(this::toDto);
         }
-        return userRepository.findByNameOrBioSortedByFollowersCount(query, query, pageable)
-                .map(this::toDto);
+        List<Long> rankedIds = userSearchIndex.search(query);
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+
+        Map<Long, UserEntity> users = userRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(UserEntity::getUserId, Function.identity()));
+        List<UserDto> content = pageIds.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
+                .map(this::toDto)
+                .toList();
+        return new PageImpl<>(content, pageable, rankedIds.size());
     }
 
     public Page<UserDto> getFollowers(Long userId, Map<String, String> params) {
@@ -213,13 +225,12 @@ public class UserService implements UserDetailsService {
         return new UserDto(
                 deleted ? null : entity.getUserId(),
                 deleted ? "Deleted User" : entity.getName(),
-                deleted ? null : profilePicture == null ? null : profilePicture.getImageUrl()
+                deleted ? null : profilePicture == null ? null : profilePicture.getUrl(ImageVariant.THUMBNAIL)
         );
     }
 
-    @Transactional
     public void incrementViewCount(Long userId) {
-        userRepository.incrementViewCount(userId);
+        viewCountBuffer.incrementUserViews(userId);
     }
 
     public void setDeleted(Long userIdFromAuthToken, String password) {
@@ -233,6 +244,8 @@ public class UserService implements UserDetailsService {
         tokenService.revokeAllTokens(user.getEmail());
 
         userRepository.save(user);
+        userSearchIndex.remove(user);
+        recipeCache.evictByAuthor(user.getUserId());
     }
 }
 
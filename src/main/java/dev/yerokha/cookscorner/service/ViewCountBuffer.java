@@ -0,0 +1,108 @@
+package dev.yerokha.cookscorner.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class ViewCountBuffer {
+
+    private static final String RECIPE_UPDATE = "UPDATE recipe SET view_count = view_count + ? WHERE recipe_id = ?";
+    private static final String USER_UPDATE = "UPDATE users SET view_count = view_count + ? WHERE user_id = ?";
+
+    private final ConcurrentMap<Long, LongAdder> recipeViews = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, LongAdder> userViews = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+
+    public ViewCountBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        Gauge.builder("views.pending", recipeViews, ViewCountBuffer::pending)
+                .tag("object", "recipe")
+                .description("Recipe views not yet flushed to the database")
+                .register(meterRegistry);
+        Gauge.builder("views.pending", userViews, ViewCountBuffer::pending)
+                .tag("object", "user")
+                .description("Profile views not yet flushed to the database")
+                .register(meterRegistry);
+    }
+
+    public void incrementRecipeViews(Long recipeId) {
+        increment(recipeViews, recipeId);
+    }
+
+    public void incrementUserViews(Long userId) {
+        increment(userViews, userId);
+    }
+
+    private static void increment(ConcurrentMap<Long, LongAdder> views, Long id) {
+        if (id == null) {
+            return;
+        }
+
+        LongAdder adder = views.computeIfAbsent(id, key -> new LongAdder());
+        adder.increment();
+        // a flush may have dropped the adder as idle meanwhile; the view then moves to the adder in the map
+        if (views.get(id) != adder) {
+            long moved = adder.sumThenReset();
+            if (moved > 0) {
+                views.computeIfAbsent(id, key -> new LongAdder()).add(moved);
+            }
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${views.flush-interval-ms:5000}")
+    public void flush() {
+        flush(recipeViews, RECIPE_UPDATE);
+        flush(userViews, USER_UPDATE);
+    }
+
+    private void flush(ConcurrentMap<Long, LongAdder> views, String sql) {
+        List<Object[]> deltas = new ArrayList<>();
+        for (Map.Entry<Long, LongAdder> entry : views.entrySet()) {
+            Long id = entry.getKey();
+            LongAdder adder = entry.getValue();
+            // resetting swaps each cell, so an increment either lands in this delta or stays for the next flush
+            long delta = adder.sumThenReset();
+            if (delta == 0 && views.remove(id, adder)) {
+                // the adder sat idle since the last flush; views that hit it before the removal go out now
+                delta = adder.sumThenReset();
+            }
+            if (delta > 0) {
+                deltas.add(new Object[]{delta, id});
+            }
+        }
+
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        // a stable row order keeps concurrent flushes from several instances deadlock-free
+        deltas.sort(Comparator.comparing(delta -> (Long) delta[1]));
+        try {
+            jdbcTemplate.batchUpdate(sql, deltas);
+        } catch (DataAccessException e) {
+            deltas.forEach(delta -> views.computeIfAbsent((Long) delta[1], key -> new LongAdder())
+                    .add((Long) delta[0]));
+            throw e;
+        }
+    }
+
+    private static double pending(Map<Long, LongAdder> views) {
+        return views.values().stream()
+                .mapToLong(LongAdder::sum)
+                .sum();
+    }
+}
@@ -0,0 +1,9 @@
+package dev.yerokha.cookscorner.service.interfaces;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public interface ImageStorage {
+
+    String store(String key, Path file) throws IOException;
+}
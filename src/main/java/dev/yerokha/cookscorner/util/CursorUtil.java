@@ -0,0 +1,34 @@
+package dev.yerokha.cookscorner.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+public class CursorUtil {
+
+    private static final String SEPARATOR = ":";
+
+    public static String encodeCursor(long... values) {
+        String cursor = Arrays.stream(values)
+                .mapToObj(Long::toString)
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long[] decodeCursor(String cursor, int length) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(SEPARATOR);
+            if (parts.length != length) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+
+            return Arrays.stream(parts)
+                    .mapToLong(Long::parseLong)
+                    .toArray();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package dev.yerokha.cookscorner.util;
+
+import dev.yerokha.cookscorner.enums.ImageVariant;
+
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class ImageVariantUtil {
+
+    private static final float QUALITY = 0.85f;
+    private static final Set<String> FORMATS = Set.of("jpg", "png", "webp");
+
+    private static final String JPEG_METADATA_FORMAT = "javax_imageio_jpeg_image_1.0";
+    private static final String APP1_MARKER = "225";
+    private static final byte[] EXIF_HEADER = "Exif\0\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    // the format the content actually decodes as, never the one the client's file name claims;
+    // empty when ImageIO cannot read the header or the format is not one we serve
+    public static Optional<String> detectFormat(Path path) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return Optional.empty();
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                if (reader.getWidth(0) <= 0 || reader.getHeight(0) <= 0) {
+                    return Optional.empty();
+                }
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                format = format.equals("jpeg") ? "jpg" : format;
+                return FORMATS.contains(format) ? Optional.of(format) : Optional.empty();
+            } catch (IOException | RuntimeException e) {
+                return Optional.empty();
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    public static Map<ImageVariant, Path> createVariants(Path original) throws IOException {
+        ImageVariant[] largestFirst = ImageVariant.values();
+        Arrays.sort(largestFirst, Comparator.comparingInt(ImageVariant::getMaxSize).reversed());
+
+        BufferedImage source = read(original, largestFirst[0].getMaxSize());
+        if (source == null) {
+            throw new IOException("Not an image ImageIO can decode");
+        }
+
+        Map<ImageVariant, Path> variants = new EnumMap<>(ImageVariant.class);
+        try {
+            // each variant is scaled down from the previous, larger one instead of from the original
+            for (ImageVariant variant : largestFirst) {
+                source = resize(source, variant.getMaxSize());
+                variants.put(variant, write(source));
+            }
+            return variants;
+        } catch (IOException | RuntimeException e) {
+            deleteAll(variants);
+            throw e;
+        }
+    }
+
+    public static void deleteAll(Map<ImageVariant, Path> variants) {
+        for (Path path : variants.values()) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // a phone photo decoded at full resolution takes ~48MB of heap, so the reader skips pixels
+    // while decoding and keeps the image only as large as the biggest variant needs
+    private static BufferedImage read(Path path, int maxSize) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(path.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, false);
+                int subsampling = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / maxSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                return orient(image, orientation(reader.getImageMetadata(0)));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // halving until within a factor of two of the target keeps the bilinear pass from skipping source pixels
+    private static BufferedImage resize(BufferedImage source, int maxSize) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxSize / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage target = source;
+        do {
+            width = width / 2 >= targetWidth ? width / 2 : targetWidth;
+            height = height / 2 >= targetHeight ? height / 2 : targetHeight;
+            target = scale(target, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return target;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, imageType(source));
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    // cameras store pixels as the sensor saw them and record the rotation in the EXIF orientation tag
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+
+        boolean transposed = orientation >= 5;
+        BufferedImage target = new BufferedImage(transposed ? height : width, transposed ? width : height, imageType(image));
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static int orientation(IIOMetadata metadata) {
+        if (metadata == null || !Arrays.asList(metadata.getMetadataFormatNames()).contains(JPEG_METADATA_FORMAT)) {
+            return 1;
+        }
+
+        NodeList markers = ((IIOMetadataNode) metadata.getAsTree(JPEG_METADATA_FORMAT)).getElementsByTagName("unknown");
+        for (int i = 0; i < markers.getLength(); i++) {
+            Node marker = markers.item(i);
+            NamedNodeMap attributes = marker.getAttributes();
+            Node tag = attributes == null ? null : attributes.getNamedItem("MarkerTag");
+            if (tag != null && APP1_MARKER.equals(tag.getNodeValue())
+                    && ((IIOMetadataNode) marker).getUserObject() instanceof byte[] data) {
+                int orientation = exifOrientation(data);
+                if (orientation != 0) {
+                    return orientation;
+                }
+            }
+        }
+        return 1;
+    }
+
+    // reads the orientation entry of IFD0 from an APP1 segment, 0 when the segment has none
+    private static int exifOrientation(byte[] segment) {
+        if (segment.length < EXIF_HEADER.length + 8
+                || !Arrays.equals(segment, 0, EXIF_HEADER.length, EXIF_HEADER, 0, EXIF_HEADER.length)) {
+            return 0;
+        }
+
+        ByteBuffer tiff = ByteBuffer.wrap(segment, EXIF_HEADER.length, segment.length - EXIF_HEADER.length).slice();
+        tiff.order(tiff.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        try {
+            int ifd = tiff.getInt(4);
+            int entries = tiff.getShort(ifd) & 0xffff;
+            for (int i = 0; i < entries; i++) {
+                int entry = ifd + 2 + i * 12;
+                if ((tiff.getShort(entry) & 0xffff) == ORIENTATION_TAG) {
+                    int orientation = tiff.getShort(entry + 8) & 0xffff;
+                    return orientation >= 1 && orientation <= 8 ? orientation : 0;
+                }
+            }
+        } catch (IndexOutOfBoundsException ignored) {
+        }
+        return 0;
+    }
+
+    private static int imageType(BufferedImage image) {
+        return image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+    }
+
+    private static Path write(BufferedImage image) throws IOException {
+        String format = format(image);
+        ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        Path path = Files.createTempFile("image-variant-", "." + format);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(path.toFile())) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                if (param.getCompressionType() == null) {
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                }
+                param.setCompressionQuality(QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        return path;
+    }
+
+    // WebP is used when an ImageIO plugin for it is on the classpath, the JDK alone only writes JPEG and PNG
+    private static String format(BufferedImage image) {
+        if (ImageIO.getImageWritersByFormatName("webp").hasNext()) {
+            return "webp";
+        }
+        return image.getColorModel().hasAlpha() ? "png" : "jpg";
+    }
+}
@@ -3,9 +3,10 @@ package dev.yerokha.cookscorner.util;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.Mac;
 import javax.crypto.NoSuchPaddingException;
-import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
@@ -13,31 +14,72 @@ import java.util.Base64;
 public class TokenEncryptionUtil {
 
     private static final String ENCRYPTION_ALGORITHM = "AES";
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
     private static final String ENCRYPTION_KEY = System.getenv("ENCRYPTION_KEY");
+    private static final byte[] DIGEST_KEY_LABEL = "cookscorner token digest".getBytes(StandardCharsets.UTF_8);
 
+    // Cipher and Mac are not thread-safe, so every thread keeps its own initialized instance
+    private static final ThreadLocal<Cipher> ENCRYPT_CIPHER = ThreadLocal.withInitial(() -> cipher(Cipher.ENCRYPT_MODE));
+    private static final ThreadLocal<Cipher> DECRYPT_CIPHER = ThreadLocal.withInitial(() -> cipher(Cipher.DECRYPT_MODE));
+    private static final ThreadLocal<Mac> DIGEST_MAC = ThreadLocal.withInitial(() -> mac(digestKey()));
+    private static final ThreadLocal<Mac> LEGACY_DIGEST_MAC = ThreadLocal.withInitial(() -> mac(ENCRYPTION_KEY.getBytes()));
 
     public static String encryptToken(String token) {
         try {
-            SecretKey secretKey = new SecretKeySpec(ENCRYPTION_KEY.getBytes(), ENCRYPTION_ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
-            cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-            byte[] encryptedBytes = cipher.doFinal(token.getBytes());
+            byte[] encryptedBytes = ENCRYPT_CIPHER.get().doFinal(token.getBytes());
             return Base64.getUrlEncoder().withoutPadding().encodeToString(encryptedBytes);
-        } catch (NoSuchAlgorithmException | BadPaddingException | IllegalBlockSizeException | InvalidKeyException |
-                 NoSuchPaddingException e) {
+        } catch (BadPaddingException | IllegalBlockSizeException e) {
+            ENCRYPT_CIPHER.remove();
             throw new RuntimeException(e);
         }
     }
 
     public static String decryptToken(String encryptedToken) {
         try {
-            SecretKey secretKey = new SecretKeySpec(ENCRYPTION_KEY.getBytes(), ENCRYPTION_ALGORITHM);
-            Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
-            byte[] decryptedBytes = cipher.doFinal(Base64.getUrlDecoder().decode(encryptedToken));
+            byte[] decryptedBytes = DECRYPT_CIPHER.get().doFinal(Base64.getUrlDecoder().decode(encryptedToken));
             return new String(decryptedBytes);
-        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException | IllegalBlockSizeException |
-                 BadPaddingException e) {
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            DECRYPT_CIPHER.remove();
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static String digestToken(String value) {
+        return digest(DIGEST_MAC.get(), value);
+    }
+
+    // digests stored before the digest key was derived were keyed with the encryption key itself
+    public static String legacyDigestToken(String value) {
+        return digest(LEGACY_DIGEST_MAC.get(), value);
+    }
+
+    private static String digest(Mac mac, String value) {
+        byte[] digest = mac.doFinal(value.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private static Cipher cipher(int mode) {
+        try {
+            Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+            cipher.init(mode, new SecretKeySpec(ENCRYPTION_KEY.getBytes(), ENCRYPTION_ALGORITHM));
+            return cipher;
+        } catch (NoSuchAlgorithmException | NoSuchPaddingException | InvalidKeyException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // the digest key is an HMAC of a fixed label under the encryption key, so the cipher and the
+    // digests never share a key and a leaked digest says nothing about the encryption key
+    private static byte[] digestKey() {
+        return mac(ENCRYPTION_KEY.getBytes()).doFinal(DIGEST_KEY_LABEL);
+    }
+
+    private static Mac mac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(new SecretKeySpec(key, DIGEST_ALGORITHM));
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
             throw new RuntimeException(e);
         }
     }
@@ -0,0 +1,29 @@
+package dev.yerokha.cookscorner;
+
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+// the test database is recreated on every run while Redis keeps what the previous one cached
+@Component
+class RedisCacheCleaner {
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    RedisCacheCleaner(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    void clear() {
+        for (String pattern : new String[]{"recipe:*", "feed:*", "trending:*", "timeline:*"}) {
+            Set<String> keys = redisTemplate.keys(pattern);
+            if (keys != null && !keys.isEmpty()) {
+                redisTemplate.delete(keys);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dev.yerokha.cookscorner.config;
+
+import dev.yerokha.cookscorner.service.MailService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class ImageHashMigrationTest {
+
+    private static final Long RECIPE_ID = 10L;
+    private static final Long USER_ID = 3L;
+
+    @Autowired
+    ImageHashMigration imageHashMigration;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @MockBean
+    MailService mailService;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("UPDATE recipe SET image_id = 100 WHERE recipe_id = ?", RECIPE_ID);
+        jdbcTemplate.update("UPDATE users SET image_id = NULL WHERE user_id = ?", USER_ID);
+        jdbcTemplate.update("DELETE FROM image WHERE hash = 'duplicate'");
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS image_hash_uk ON image (hash)");
+    }
+
+    @Test
+    void migrate_DuplicatesMergedIntoReadyImage() {
+        // the state left by uploads from before the unique index
+        jdbcTemplate.execute("DROP INDEX image_hash_uk");
+        jdbcTemplate.update("INSERT INTO image (image_id, hash, image_name, status) VALUES " +
+                "(201, 'duplicate', 'a.jpg', 'FAILED'), (202, 'duplicate', 'b.jpg', 'READY'), " +
+                "(203, 'duplicate', 'c.jpg', 'READY')");
+        jdbcTemplate.update("UPDATE recipe SET image_id = 201 WHERE recipe_id = ?", RECIPE_ID);
+        jdbcTemplate.update("UPDATE users SET image_id = 203 WHERE user_id = ?", USER_ID);
+
+        imageHashMigration.migrate();
+
+        assertEquals(List.of(202L), jdbcTemplate.queryForList(
+                "SELECT image_id FROM image WHERE hash = 'duplicate'", Long.class));
+        assertEquals(202L, jdbcTemplate.queryForObject(
+                "SELECT image_id FROM recipe WHERE recipe_id = ?", Long.class, RECIPE_ID));
+        assertEquals(202L, jdbcTemplate.queryForObject(
+                "SELECT image_id FROM users WHERE user_id = ?", Long.class, USER_ID));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO image (hash, image_name) VALUES ('duplicate', 'd.jpg')"));
+    }
+}
@@ -1,6 +1,8 @@
 package dev.yerokha.cookscorner.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.dto.ActionRequest;
+import dev.yerokha.cookscorner.dto.BatchActionRequest;
 import dev.yerokha.cookscorner.dto.LoginRequest;
 import dev.yerokha.cookscorner.service.MailService;
 import org.junit.jupiter.api.MethodOrderer;
@@ -14,6 +16,8 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+
 import static dev.yerokha.cookscorner.controller.AuthenticationControllerTest.accessToken;
 import static dev.yerokha.cookscorner.controller.AuthenticationControllerTest.extractToken;
 import static org.hamcrest.Matchers.containsString;
@@ -113,6 +117,18 @@ class ActionControllerTest {
                 .andExpect(jsonPath("$.content[0].isLiked").value(false));
     }
 
+    @Test
+    @Order(6)
+    void like_NotFound() throws Exception {
+        mockMvc.perform(put("/v1/actions/1/2/999")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(put("/v1/actions/1/1/999")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @Order(6)
     void like_Unauthorized() throws Exception {
@@ -204,6 +220,79 @@ class ActionControllerTest {
                 .andExpect(jsonPath("$.isBookmarked").value(false));
     }
 
+    @Test
+    @Order(13)
+    void batch() throws Exception {
+        String batch = objectMapper.writeValueAsString(new BatchActionRequest(List.of(
+                new ActionRequest((byte) 1, (byte) 2, 1L),
+                new ActionRequest((byte) 2, (byte) 2, 1L),
+                new ActionRequest((byte) 1, (byte) 2, 999L),
+                new ActionRequest((byte) 5, (byte) 2, 1L)
+        )));
+
+        mockMvc.perform(put("/v1/actions/batch")
+                        .content(batch)
+                        .contentType(APP_JSON)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CHANGED"))
+                .andExpect(jsonPath("$[1].status").value("CHANGED"))
+                .andExpect(jsonPath("$[2].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[3].status").value("INVALID"));
+
+        mockMvc.perform(put("/v1/actions/batch")
+                        .content(batch)
+                        .contentType(APP_JSON)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("UNCHANGED"))
+                .andExpect(jsonPath("$[1].status").value("UNCHANGED"));
+
+        mockMvc.perform(get("/v1/recipes/1")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(jsonPath("$.likes").value(1))
+                .andExpect(jsonPath("$.bookmarks").value(1))
+                .andExpect(jsonPath("$.isLiked").value(true))
+                .andExpect(jsonPath("$.isBookmarked").value(true));
+    }
+
+    @Test
+    @Order(14)
+    void batch_Undo() throws Exception {
+        String batch = objectMapper.writeValueAsString(new BatchActionRequest(List.of(
+                new ActionRequest((byte) 10, (byte) 2, 1L),
+                new ActionRequest((byte) 20, (byte) 2, 1L)
+        )));
+
+        mockMvc.perform(put("/v1/actions/batch")
+                        .content(batch)
+                        .contentType(APP_JSON)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CHANGED"))
+                .andExpect(jsonPath("$[1].status").value("CHANGED"));
+
+        mockMvc.perform(get("/v1/recipes/1")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(jsonPath("$.likes").value(0))
+                .andExpect(jsonPath("$.bookmarks").value(0));
+    }
+
+    @Test
+    @Order(14)
+    void batch_Duplicate() throws Exception {
+        String batch = objectMapper.writeValueAsString(new BatchActionRequest(List.of(
+                new ActionRequest((byte) 1, (byte) 2, 1L),
+                new ActionRequest((byte) 10, (byte) 2, 1L)
+        )));
+
+        mockMvc.perform(put("/v1/actions/batch")
+                        .content(batch)
+                        .contentType(APP_JSON)
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isBadRequest());
+    }
+
     public void login(String email, String password) throws Exception {
         LoginRequest request = new LoginRequest(
                 email,
@@ -6,7 +6,9 @@ import dev.yerokha.cookscorner.dto.LoginRequest;
 import dev.yerokha.cookscorner.dto.RegistrationRequest;
 import dev.yerokha.cookscorner.dto.ResetPasswordRequest;
 import dev.yerokha.cookscorner.dto.SendEmailRequest;
+import dev.yerokha.cookscorner.entity.RefreshToken;
 import dev.yerokha.cookscorner.entity.UserEntity;
+import dev.yerokha.cookscorner.repository.TokenRepository;
 import dev.yerokha.cookscorner.repository.UserRepository;
 import dev.yerokha.cookscorner.service.MailService;
 import org.json.JSONException;
@@ -23,9 +25,12 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import static dev.yerokha.cookscorner.util.TokenEncryptionUtil.digestToken;
+import static dev.yerokha.cookscorner.util.TokenEncryptionUtil.legacyDigestToken;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -50,6 +55,10 @@ class AuthenticationControllerTest {
     MailService mailService;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    TokenRepository tokenRepository;
+    @Autowired
+    JwtDecoder jwtDecoder;
     final String APP_JSON = "application/json";
     private static String confirmationUrl;
     private static String resetPasswordUrl;
@@ -299,6 +308,23 @@ class AuthenticationControllerTest {
         accessToken = newAccessToken;
     }
 
+    @Test
+    @Order(14)
+    void refreshToken_LegacyDigestMigrated() throws Exception {
+        String tokenId = jwtDecoder.decode(refreshToken).getId();
+        RefreshToken stored = tokenRepository.findNotRevokedByDigest(digestToken(tokenId)).orElseThrow();
+        stored.setTokenDigest(legacyDigestToken(tokenId));
+        tokenRepository.save(stored);
+
+        mockMvc.perform(post("/v1/auth/refresh-token")
+                .contentType(APP_JSON)
+                .content("Bearer " + refreshToken))
+                .andExpect(status().isOk());
+
+        Assertions.assertTrue(tokenRepository.findNotRevokedByDigest(digestToken(tokenId)).isPresent());
+        Assertions.assertNotEquals(digestToken(tokenId), legacyDigestToken(tokenId));
+    }
+
     @Test
     @Order(14)
     void refreshToken_InvalidToken() throws Exception {
@@ -328,6 +354,23 @@ class AuthenticationControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @Order(16)
+    void revoke_AccessTokenRejected() throws Exception {
+        mockMvc.perform(put("/v1/actions/1/2/1")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @Order(16)
+    void refreshToken_Revoked() throws Exception {
+        mockMvc.perform(post("/v1/auth/refresh-token")
+                        .contentType(APP_JSON)
+                        .content("Bearer " + refreshToken))
+                .andExpect(status().isUnauthorized());
+    }
+
     // test for forgot-password
     @Test
     @Order(17)
@@ -18,6 +18,7 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import static dev.yerokha.cookscorner.controller.AuthenticationControllerTest.accessToken;
 import static dev.yerokha.cookscorner.controller.AuthenticationControllerTest.extractToken;
+import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.nullValue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -164,6 +165,29 @@ class CommentControllerTest {
                 .andExpect(jsonPath("$.content[2].isLiked").value(false));
     }
 
+    @Test
+    @Order(4)
+    void getComments_Cursor() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/comments/1")
+                        .param("cursor", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].commentId").value(1L))
+                .andExpect(jsonPath("$.content[1].commentId").value(10L))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andReturn();
+
+        String nextCursor = extractToken(result.getResponse().getContentAsString(), "nextCursor");
+
+        mockMvc.perform(get("/v1/comments/1")
+                        .param("cursor", nextCursor)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].commentId").value(11L))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
     @Test
     @Order(5)
     void getReplies() throws Exception {
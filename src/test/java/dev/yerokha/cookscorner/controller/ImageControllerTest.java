@@ -0,0 +1,98 @@
+package dev.yerokha.cookscorner.controller;
+
+import dev.yerokha.cookscorner.entity.Image;
+import dev.yerokha.cookscorner.enums.ImageStatus;
+import dev.yerokha.cookscorner.repository.ImageRepository;
+import dev.yerokha.cookscorner.service.ImageService;
+import dev.yerokha.cookscorner.service.MailService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "image.storage=local",
+        "image.storage.local.root=target/test-images"
+})
+@AutoConfigureMockMvc
+class ImageControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ImageService imageService;
+    @Autowired
+    ImageRepository imageRepository;
+    @MockBean
+    MailService mailService;
+
+    @Test
+    void getImage() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB), "png", bytes);
+        MockMultipartFile file = new MockMultipartFile("image", "local.svg", "image/svg+xml", bytes.toByteArray());
+        Long imageId = imageService.processImage(file).getImageId();
+
+        for (int i = 0; i < 50 && imageRepository.findById(imageId).orElseThrow().getStatus() != ImageStatus.READY; i++) {
+            Thread.sleep(100);
+        }
+        Image image = imageRepository.findById(imageId).orElseThrow();
+        assertTrue(image.getImageUrl().startsWith("/v1/images/"));
+
+        // the stored name follows the decoded content, not the extension the client sent
+        String eTag = "\"" + image.getHash() + "-full.png\"";
+        byte[] stored = mockMvc.perform(get(image.getImageUrl()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(40, ImageIO.read(new ByteArrayInputStream(stored)).getWidth());
+
+        mockMvc.perform(get(image.getImageUrl())
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get(image.getImageUrl())
+                        .header("Range", "bytes=1-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("PNG"));
+    }
+
+    @Test
+    void getImage_UnsupportedTypeNotServed() throws Exception {
+        String key = "a".repeat(64) + ".svg";
+        Path path = Path.of("target/test-images", key.substring(0, 2), key);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, "<svg xmlns=\"http://www.w3.org/2000/svg\"><script>alert(1)</script></svg>");
+
+        mockMvc.perform(get("/v1/images/" + key))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getImage_NotFound() throws Exception {
+        mockMvc.perform(get("/v1/images/" + "0".repeat(64)))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/v1/images/pom.xml"))
+                .andExpect(status().isNotFound());
+    }
+}
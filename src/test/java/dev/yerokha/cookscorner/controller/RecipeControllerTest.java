@@ -8,6 +8,8 @@ import dev.yerokha.cookscorner.dto.UpdateRecipeRequest;
 import dev.yerokha.cookscorner.repository.RecipeRepository;
 import dev.yerokha.cookscorner.service.ImageService;
 import dev.yerokha.cookscorner.service.MailService;
+import dev.yerokha.cookscorner.service.TrendingRanking;
+import dev.yerokha.cookscorner.service.ViewCountBuffer;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -49,6 +51,10 @@ class RecipeControllerTest {
     ObjectMapper objectMapper;
     @Autowired
     RecipeRepository recipeRepository;
+    @Autowired
+    ViewCountBuffer viewCountBuffer;
+    @Autowired
+    TrendingRanking trendingRanking;
 
     @MockBean
     MailService mailService;
@@ -133,6 +139,124 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$.content[0].isLiked").value(nullValue()));
     }
 
+    @Test
+    @Order(3)
+    void getRecipes_Popular() throws Exception {
+        mockMvc.perform(get("/v1/recipes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)))
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.content[0].author").isNotEmpty())
+                .andExpect(jsonPath("$.content[0].isLiked").value(nullValue()));
+    }
+
+    @Test
+    @Order(3)
+    void getRecipes_Cursor() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v1/recipes")
+                        .param("cursor", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn();
+
+        String nextCursor = extractToken(result.getResponse().getContentAsString(), "nextCursor");
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("cursor", nextCursor)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.last").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(nullValue()));
+    }
+
+    @Test
+    @Order(3)
+    void getRecipes_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/v1/recipes")
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(3)
+    void getRecipes_Search() throws Exception {
+        mockMvc.perform(get("/v1/recipes")
+                        .param("query", "Test dish"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("query", "deleted dish"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].recipeId").value(10L));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("query", "unknown dish"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    @Order(3)
+    void getRecipes_SearchByPrefixAndIngredient() throws Exception {
+        mockMvc.perform(get("/v1/recipes")
+                        .param("query", "spag"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].title").value("Spaghetti Carbonara"));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("query", "parmesan"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].title").value("Spaghetti Carbonara"));
+    }
+
+    @Test
+    @Order(3)
+    void getRecipes_ByIngredients() throws Exception {
+        mockMvc.perform(get("/v1/recipes")
+                        .param("ingredients", "Spaghetti, eggs,pancetta"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].title").value("Spaghetti Carbonara"));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("ingredients", "spaghetti,truffle"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("ingredients", "spaghetti,truffle")
+                        .param("match", "any"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("ingredients", "spaghetti,pancetta,parmesan cheese,eggs")
+                        .param("match", "missing")
+                        .param("maxMissing", "0"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("ingredients", "spaghetti,pancetta,parmesan cheese,eggs")
+                        .param("match", "missing"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("ingredients", "eggs")
+                        .param("match", "some"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Order(3)
     void getRecipes_UnAuthorized() throws Exception {
@@ -160,6 +284,7 @@ class RecipeControllerTest {
         mockMvc.perform(get("/v1/recipes/2"))
                 .andExpect(content().string(containsString("classic")));
 
+        viewCountBuffer.flush();
         long updatedViewCount = recipeRepository.getViewCount(2);
 
         Assertions.assertTrue(updatedViewCount > initialViewCount,
@@ -186,6 +311,55 @@ class RecipeControllerTest {
                 .andExpect(jsonPath("$.isBookmarked").value(false));
     }
 
+    @Test
+    @Order(6)
+    void getRecipes_Trending() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/v1/recipes/10"))
+                    .andExpect(status().isOk());
+        }
+        trendingRanking.flush();
+        trendingRanking.rebase();
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("sort", "trending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].recipeId").value(10L))
+                .andExpect(jsonPath("$.content[0].isLiked").value(nullValue()));
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("sort", "trending")
+                        .param("page", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    @Order(7)
+    void getRecipes_Following() throws Exception {
+        mockMvc.perform(get("/v1/recipes")
+                        .param("query", "following"))
+                .andExpect(status().isUnauthorized());
+
+        login(EMAIL, PASSWORD);
+        mockMvc.perform(post("/v1/users/follow/2")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/v1/recipes")
+                        .param("query", "following")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].recipeId").value(1L))
+                .andExpect(jsonPath("$.content[0].isLiked").value(false))
+                .andExpect(jsonPath("$.last").value(true));
+
+        mockMvc.perform(post("/v1/users/unfollow/2")
+                        .header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+    }
+
     public void login(String email, String password) throws Exception {
         LoginRequest request = new LoginRequest(
                 email,
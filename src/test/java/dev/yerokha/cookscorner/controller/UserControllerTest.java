@@ -6,6 +6,7 @@ import dev.yerokha.cookscorner.dto.UpdateProfileRequest;
 import dev.yerokha.cookscorner.repository.UserRepository;
 import dev.yerokha.cookscorner.service.ImageService;
 import dev.yerokha.cookscorner.service.MailService;
+import dev.yerokha.cookscorner.service.ViewCountBuffer;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
@@ -43,6 +44,8 @@ class UserControllerTest {
     ObjectMapper objectMapper;
     @Autowired
     UserRepository userRepository;
+    @Autowired
+    ViewCountBuffer viewCountBuffer;
     @MockBean
     MailService mailService;
     @MockBean
@@ -63,6 +66,7 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.followers").value(0))
                 .andExpect(jsonPath("$.following").value(0));
 
+        viewCountBuffer.flush();
         long updatedViewCount = userRepository.getViewCount(1L);
 
         Assertions.assertTrue(updatedViewCount > initialViewCount,
@@ -234,6 +238,19 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("Second User"));
     }
 
+    @Test
+    @Order(12)
+    void search_ByBio() throws Exception {
+        mockMvc.perform(get("/v1/users/search")
+                        .param("query", "Test User"))
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.totalElements").value(2));
+
+        mockMvc.perform(get("/v1/users/search")
+                        .param("query", "deleted"))
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
     @Test
     @Order(13)
     void showUserRecipes() throws Exception {
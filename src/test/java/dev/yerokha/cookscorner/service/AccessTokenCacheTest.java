@@ -0,0 +1,59 @@
+package dev.yerokha.cookscorner.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+class AccessTokenCacheTest {
+
+    private AccessTokenCache accessTokenCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        accessTokenCache = new AccessTokenCache(mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class),
+                100, 300);
+    }
+
+    @Test
+    void invalidate_OnlyThatUsersTokensEvicted() {
+        cache("first-token", "existing@example.com");
+        cache("second-token", "existing@example.com");
+        cache("other-token", "second@example.com");
+
+        accessTokenCache.invalidate("existing@example.com");
+
+        assertNull(accessTokenCache.get("first-token"));
+        assertNull(accessTokenCache.get("second-token"));
+        assertNotNull(accessTokenCache.get("other-token"));
+    }
+
+    @Test
+    void invalidate_TokenCachedAgainAfterwards() {
+        cache("first-token", "existing@example.com");
+        accessTokenCache.invalidate("existing@example.com");
+
+        cache("fresh-token", "existing@example.com");
+
+        assertNotNull(accessTokenCache.get("fresh-token"));
+        accessTokenCache.invalidate("existing@example.com");
+        assertNull(accessTokenCache.get("fresh-token"));
+    }
+
+    private void cache(String accessToken, String email) {
+        Jwt jwt = Jwt.withTokenValue(accessToken)
+                .header("alg", "RS256")
+                .subject(email)
+                .expiresAt(Instant.now().plusSeconds(60))
+                .build();
+        accessTokenCache.put(accessToken, jwt, accessTokenCache.stamp());
+    }
+}
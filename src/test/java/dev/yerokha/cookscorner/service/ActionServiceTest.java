@@ -0,0 +1,60 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.dto.ActionRequest;
+import dev.yerokha.cookscorner.dto.ActionResult;
+import dev.yerokha.cookscorner.enums.ActionStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.matches;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest
+class ActionServiceTest {
+
+    private static final Long RECIPE_ID = 1L;
+    private static final Long USER_ID = 3L;
+    private static final byte LIKE = 1;
+    private static final byte DISLIKE = 10;
+    private static final byte RECIPE = 2;
+
+    @Autowired
+    ActionService actionService;
+    @SpyBean
+    JdbcTemplate jdbcTemplate;
+    @MockBean
+    MailService mailService;
+
+    @Test
+    void interactAll_CountsResolvedWhenDriverReportsNoInfo() {
+        // the way pgjdbc answers batches with reWriteBatchedInserts
+        doAnswer(invocation -> {
+            int[] counts = (int[]) invocation.callRealMethod();
+            Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+            return counts;
+        }).when(jdbcTemplate).batchUpdate(matches("^(INSERT|DELETE) .*"), anyList());
+        int likes = likeCount();
+
+        List<ActionResult> liked = actionService.interactAll(List.of(new ActionRequest(LIKE, RECIPE, RECIPE_ID)), USER_ID);
+        assertEquals(ActionStatus.CHANGED, liked.get(0).status());
+        assertEquals(likes + 1, likeCount());
+
+        List<ActionResult> disliked = actionService.interactAll(List.of(new ActionRequest(DISLIKE, RECIPE, RECIPE_ID)), USER_ID);
+        assertEquals(ActionStatus.CHANGED, disliked.get(0).status());
+        assertEquals(likes, likeCount());
+    }
+
+    private int likeCount() {
+        return jdbcTemplate.queryForObject("SELECT like_count FROM recipe WHERE recipe_id = ?", Integer.class, RECIPE_ID);
+    }
+}
@@ -0,0 +1,100 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.dto.RecipeDto;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+class FeedCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 12, Sort.by(Sort.Direction.DESC, "viewCount"));
+
+    @Autowired
+    FeedCache feedCache;
+    @Autowired
+    RedisTemplate<String, String> redisTemplate;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    RedisMessageListenerContainer listenerContainer;
+    @SpyBean
+    RecipeRepository recipeRepository;
+    @MockBean
+    MailService mailService;
+
+    @BeforeEach
+    void setUp() {
+        feedCache.invalidate();
+        clearInvocations(recipeRepository);
+    }
+
+    @Test
+    void getPopular_LoadedOnce() {
+        feedCache.getPopular(FIRST_PAGE);
+        feedCache.getPopular(FIRST_PAGE);
+
+        verify(recipeRepository, times(1)).findRecipeCards(any(Pageable.class));
+    }
+
+    @Test
+    void getPopular_SharedThroughRedis() {
+        Page<RecipeDto> page = feedCache.getPopular(FIRST_PAGE);
+
+        FeedCache otherInstance = new FeedCache(recipeRepository, redisTemplate, objectMapper, listenerContainer,
+                3, 50, 100, 15, 120);
+        Page<RecipeDto> shared = otherInstance.getPopular(FIRST_PAGE);
+        otherInstance.shutdown();
+
+        verify(recipeRepository, times(1)).findRecipeCards(any(Pageable.class));
+        assertEquals(page.getTotalElements(), shared.getTotalElements());
+        assertEquals(page.getContent().get(0).getTitle(), shared.getContent().get(0).getTitle());
+    }
+
+    @Test
+    void getPopular_ViewerStateNotShared() {
+        feedCache.getPopular(FIRST_PAGE).getContent().get(0).setIsLiked(true);
+
+        assertNull(feedCache.getPopular(FIRST_PAGE).getContent().get(0).getIsLiked());
+    }
+
+    @Test
+    void getPopular_DeepPageNotCached() {
+        Pageable deepPage = PageRequest.of(3, 12, Sort.by(Sort.Direction.DESC, "viewCount"));
+        feedCache.getPopular(deepPage);
+        feedCache.getPopular(deepPage);
+
+        verify(recipeRepository, times(2)).findRecipeCards(any(Pageable.class));
+        assertFalse(Boolean.TRUE.equals(redisTemplate.hasKey("feed:popular:3:12")));
+    }
+
+    @Test
+    void getByCategory_ReloadedAfterInvalidate() {
+        feedCache.getByCategory(4L, FIRST_PAGE);
+        feedCache.invalidate();
+        feedCache.getByCategory(4L, FIRST_PAGE);
+
+        verify(recipeRepository, times(2)).findRecipeCardsByCategoryId(any(), any(Pageable.class));
+        verify(recipeRepository, never()).findRecipeCards(any(Pageable.class));
+    }
+}
@@ -0,0 +1,153 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import dev.yerokha.cookscorner.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static dev.yerokha.cookscorner.util.WaitUtil.waitUntil;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class FollowingTimelineTest {
+
+    private static final Long FOLLOWER_ID = 1L;
+    private static final Long COOK_ID = 2L;
+    private static final Long COOK_RECIPE_ID = 1L;
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 12);
+
+    @Autowired
+    FollowingTimeline followingTimeline;
+    @Autowired
+    UserService userService;
+    @Autowired
+    RecipeRepository recipeRepository;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    RedisTemplate<String, String> redisTemplate;
+    @MockBean
+    MailService mailService;
+
+    @BeforeEach
+    void setUp() {
+        userService.follow(COOK_ID, FOLLOWER_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userService.unfollow(COOK_ID, FOLLOWER_ID);
+    }
+
+    @Test
+    void getPage_RebuiltFromFollowees() {
+        Slice<Long> page = followingTimeline.getPage(FOLLOWER_ID, FIRST_PAGE);
+
+        assertEquals(List.of(COOK_RECIPE_ID), page.getContent());
+        assertFalse(page.hasNext());
+        assertTrue(Boolean.TRUE.equals(redisTemplate.hasKey("timeline:" + FOLLOWER_ID)));
+    }
+
+    @Test
+    void getPage_ConcurrentRebuildsReplaceEachOther() throws Exception {
+        followingTimeline.invalidate(FOLLOWER_ID);
+
+        int readers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Slice<Long>>> pages = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                pages.add(executor.submit(() -> {
+                    start.await();
+                    return followingTimeline.getPage(FOLLOWER_ID, FIRST_PAGE);
+                }));
+            }
+            start.countDown();
+            for (Future<Slice<Long>> page : pages) {
+                assertEquals(List.of(COOK_RECIPE_ID), page.get(10, TimeUnit.SECONDS).getContent());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(List.of(COOK_RECIPE_ID.toString(), "0"), redisTemplate.opsForList().range("timeline:" + FOLLOWER_ID, 0, -1));
+    }
+
+    @Test
+    void publish_FannedOutToFollowers() throws Exception {
+        followingTimeline.getPage(FOLLOWER_ID, FIRST_PAGE);
+
+        followingTimeline.publish(COOK_ID, 1, 777L);
+
+        waitUntil(() -> followingTimeline.getPage(FOLLOWER_ID, FIRST_PAGE).getContent().contains(777L));
+        assertEquals(List.of(777L, COOK_RECIPE_ID), followingTimeline.getPage(FOLLOWER_ID, FIRST_PAGE).getContent());
+        assertEquals(List.of(777L), followingTimeline.getPage(FOLLOWER_ID, PageRequest.of(0, 1)).getContent());
+    }
+
+    @Test
+    void getPage_PopularCookPulledOnRead() {
+        FollowingTimeline pullOnly = new FollowingTimeline(recipeRepository, userRepository, redisTemplate,
+                500, 0, 1, 1, 10);
+        pullOnly.invalidate(FOLLOWER_ID);
+
+        pullOnly.publish(COOK_ID, 1, 778L);
+        Slice<Long> page = pullOnly.getPage(FOLLOWER_ID, FIRST_PAGE);
+        pullOnly.shutdown();
+
+        assertEquals(List.of(COOK_RECIPE_ID), page.getContent());
+        assertEquals(List.of("0"), redisTemplate.opsForList().range("timeline:" + FOLLOWER_ID, 0, -1));
+    }
+
+    @Test
+    void publish_TimelineCappedAtMaxSize() throws Exception {
+        FollowingTimeline small = new FollowingTimeline(recipeRepository, userRepository, redisTemplate,
+                2, 10000, 1, 1, 10);
+        small.invalidate(FOLLOWER_ID);
+        small.getPage(FOLLOWER_ID, FIRST_PAGE);
+        assertEquals(List.of(COOK_RECIPE_ID.toString(), "0"), redisTemplate.opsForList().range("timeline:" + FOLLOWER_ID, 0, -1));
+
+        small.publish(COOK_ID, 1, 780L);
+        small.publish(COOK_ID, 1, 781L);
+        waitUntil(() -> "781".equals(redisTemplate.opsForList().index("timeline:" + FOLLOWER_ID, 0)));
+        small.shutdown();
+
+        assertEquals(List.of("781", "780"), redisTemplate.opsForList().range("timeline:" + FOLLOWER_ID, 0, -1));
+    }
+
+    @Test
+    void followersChanged_TimelinesRebuiltWhenCookDropsToPush() throws Exception {
+        FollowingTimeline timeline = new FollowingTimeline(recipeRepository, userRepository, redisTemplate,
+                500, 1, 72, 1, 10);
+        timeline.invalidate(FOLLOWER_ID);
+        timeline.getPage(FOLLOWER_ID, FIRST_PAGE);
+
+        // gaining the follower that takes the cook over the threshold leaves pushed timelines as they are
+        timeline.followersChanged(COOK_ID, 2, 1);
+        Thread.sleep(200);
+        assertTrue(Boolean.TRUE.equals(redisTemplate.hasKey("timeline:" + FOLLOWER_ID)));
+
+        // recipes posted while above it were never pushed, so dropping back rebuilds the followers
+        timeline.followersChanged(COOK_ID, 1, -1);
+        waitUntil(() -> !Boolean.TRUE.equals(redisTemplate.hasKey("timeline:" + FOLLOWER_ID)));
+        timeline.shutdown();
+    }
+}
@@ -0,0 +1,184 @@
+package dev.yerokha.cookscorner.service;
+
+import com.cloudinary.Cloudinary;
+import dev.yerokha.cookscorner.entity.Image;
+import dev.yerokha.cookscorner.enums.ImageStatus;
+import dev.yerokha.cookscorner.enums.ImageVariant;
+import dev.yerokha.cookscorner.repository.ImageRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.yerokha.cookscorner.util.WaitUtil.waitUntil;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ImageServiceTest {
+
+    @Autowired
+    ImageService imageService;
+    @Autowired
+    ImageRepository imageRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @MockBean(answer = Answers.RETURNS_DEEP_STUBS)
+    Cloudinary cloudinary;
+    @MockBean
+    MailService mailService;
+
+    @Test
+    void processImage_UploadedInBackground() throws Exception {
+        when(cloudinary.uploader().upload(any(), anyMap())).thenReturn(Map.of("url", "http://cdn.example.com/dish.jpg"));
+
+        MockMultipartFile file = new MockMultipartFile("image", "dish.jpg", "image/jpeg", jpeg(64, 48));
+
+        Image image = imageService.processImage(file);
+        assertEquals(ImageStatus.PENDING, image.getStatus());
+
+        waitUntil(() -> imageRepository.findById(image.getImageId())
+                .map(saved -> saved.getStatus() == ImageStatus.READY)
+                .orElse(false));
+        assertEquals("http://cdn.example.com/dish.jpg", imageRepository.findById(image.getImageId()).orElseThrow().getImageUrl());
+
+        Image duplicate = imageService.processImage(file);
+        assertEquals(image.getImageId(), duplicate.getImageId());
+    }
+
+    @Test
+    void processImage_VariantsUploaded() throws Exception {
+        AtomicInteger uploads = new AtomicInteger();
+        when(cloudinary.uploader().upload(any(), anyMap())).thenAnswer(invocation ->
+                Map.of("url", "http://cdn.example.com/variant-" + uploads.incrementAndGet()));
+
+        BufferedImage photo = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(photo, "png", bytes);
+        MockMultipartFile file = new MockMultipartFile("image", "photo.png", "image/png", bytes.toByteArray());
+
+        Image image = imageService.processImage(file);
+
+        waitUntil(() -> imageRepository.findById(image.getImageId())
+                .map(saved -> saved.getStatus() == ImageStatus.READY)
+                .orElse(false));
+        Image saved = imageRepository.findById(image.getImageId()).orElseThrow();
+        assertEquals(3, uploads.get());
+        assertNotEquals(saved.getImageUrl(), saved.getUrl(ImageVariant.CARD));
+        assertNotEquals(saved.getUrl(ImageVariant.CARD), saved.getUrl(ImageVariant.THUMBNAIL));
+    }
+
+    @Test
+    void processImage_ConcurrentDuplicatesCoalesced() throws Exception {
+        AtomicInteger uploads = new AtomicInteger();
+        when(cloudinary.uploader().upload(any(), anyMap())).thenAnswer(invocation -> {
+            uploads.incrementAndGet();
+            return Map.of("url", "http://cdn.example.com/viral.jpg");
+        });
+
+        MockMultipartFile file = new MockMultipartFile("image", "viral.jpg", "image/jpeg", jpeg(96, 64));
+
+        int uploaders = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(uploaders);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < uploaders; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return imageService.processImage(file).getImageId();
+                }));
+            }
+            start.countDown();
+
+            Set<Long> imageIds = new HashSet<>();
+            for (Future<Long> result : results) {
+                imageIds.add(result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, imageIds.size());
+
+            Long imageId = imageIds.iterator().next();
+            waitUntil(() -> imageRepository.findById(imageId)
+                    .map(saved -> saved.getStatus() == ImageStatus.READY)
+                    .orElse(false));
+            assertEquals(ImageVariant.values().length, uploads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void processImage_WaiterNotHandedRolledBackImage() throws Exception {
+        when(cloudinary.uploader().upload(any(), anyMap())).thenReturn(Map.of("url", "http://cdn.example.com/draft.jpg"));
+
+        MockMultipartFile file = new MockMultipartFile("image", "draft.jpg", "image/jpeg", jpeg(80, 60));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch rollback = new CountDownLatch(1);
+        try {
+            Future<?> owner = executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                imageService.processImage(file);
+                claimed.countDown();
+                try {
+                    rollback.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                status.setRollbackOnly();
+            }));
+            assertTrue(claimed.await(10, TimeUnit.SECONDS));
+
+            Future<Image> waiter = executor.submit(() -> imageService.processImage(file));
+            Thread.sleep(200);
+            assertFalse(waiter.isDone());
+
+            rollback.countDown();
+            owner.get(10, TimeUnit.SECONDS);
+            Image image = waiter.get(10, TimeUnit.SECONDS);
+            assertTrue(imageRepository.findById(image.getImageId()).isPresent());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void processImage_NotAnImageRejected() {
+        MockMultipartFile file = new MockMultipartFile("image", "dish.jpg", "image/jpeg",
+                "<svg xmlns=\"http://www.w3.org/2000/svg\"><script>alert(1)</script></svg>".getBytes());
+
+        assertThrows(IllegalArgumentException.class, () -> imageService.processImage(file));
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", bytes);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.entity.IngredientEntity;
+import dev.yerokha.cookscorner.entity.RecipeEntity;
+import dev.yerokha.cookscorner.entity.RecipeIngredient;
+import dev.yerokha.cookscorner.enums.IngredientMatch;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngredientIndexTest {
+
+    private static final List<Object[]> INGREDIENTS = List.of(
+            new Object[]{1L, "egg"}, new Object[]{1L, "salt"},
+            new Object[]{2L, "egg"}, new Object[]{2L, "flour"}, new Object[]{2L, "milk"}, new Object[]{2L, "salt"},
+            new Object[]{3L, "flour"}, new Object[]{3L, "water"}, new Object[]{3L, "yeast"}, new Object[]{3L, "salt"}
+    );
+
+    private RecipeRepository recipeRepository;
+    private IngredientIndex ingredientIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        recipeRepository = mock(RecipeRepository.class);
+        when(recipeRepository.findSearchableIngredients()).thenReturn(INGREDIENTS);
+        ingredientIndex = new IngredientIndex(recipeRepository, mock(RedisTemplate.class), new ObjectMapper(),
+                mock(RedisMessageListenerContainer.class));
+        ingredientIndex.rebuild();
+    }
+
+    @Test
+    void match_All() {
+        assertEquals(List.of(1L, 2L), ingredientIndex.match(List.of("Egg", "salt"), IngredientMatch.ALL, 0));
+        assertEquals(List.of(), ingredientIndex.match(List.of("egg", "yeast"), IngredientMatch.ALL, 0));
+    }
+
+    @Test
+    void match_AnyRankedByCoverage() {
+        assertEquals(List.of(2L, 1L, 3L),
+                ingredientIndex.match(List.of("egg", "flour", "milk"), IngredientMatch.ANY, 0));
+    }
+
+    @Test
+    void match_MissingAtMost() {
+        List<String> pantry = List.of("egg", "flour", "salt");
+
+        assertEquals(List.of(1L), ingredientIndex.match(pantry, IngredientMatch.MISSING, 0));
+        assertEquals(List.of(1L, 2L), ingredientIndex.match(pantry, IngredientMatch.MISSING, 1));
+        assertEquals(List.of(1L, 2L, 3L), ingredientIndex.match(pantry, IngredientMatch.MISSING, 2));
+    }
+
+    @Test
+    void match_UnknownIngredient() {
+        assertEquals(List.of(), ingredientIndex.match(List.of("truffle"), IngredientMatch.ANY, 0));
+        assertEquals(List.of(), ingredientIndex.match(List.of(" "), IngredientMatch.ANY, 0));
+    }
+
+    @Test
+    void rebuild_KeepsRecipeIndexedDuringQuery() {
+        // the recipe commits after the rebuild read the database, so only the replayed change knows it
+        when(recipeRepository.findSearchableIngredients()).thenAnswer(invocation -> {
+            ingredientIndex.index(recipe(4L, "egg", "truffle"));
+            return INGREDIENTS;
+        });
+
+        ingredientIndex.rebuild();
+
+        assertEquals(List.of(4L), ingredientIndex.match(List.of("truffle"), IngredientMatch.ANY, 0));
+    }
+
+    private static RecipeEntity recipe(Long recipeId, String... ingredients) {
+        RecipeEntity recipe = new RecipeEntity();
+        recipe.setRecipeId(recipeId);
+        Set<RecipeIngredient> recipeIngredients = new HashSet<>();
+        for (String ingredient : ingredients) {
+            IngredientEntity entity = new IngredientEntity();
+            entity.setIngredientName(ingredient);
+            RecipeIngredient recipeIngredient = new RecipeIngredient();
+            recipeIngredient.setIngredientEntity(entity);
+            recipeIngredients.add(recipeIngredient);
+        }
+        recipe.setRecipeIngredients(recipeIngredients);
+        return recipe;
+    }
+}
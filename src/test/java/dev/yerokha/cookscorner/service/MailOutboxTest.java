@@ -0,0 +1,67 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.entity.MailMessage;
+import dev.yerokha.cookscorner.repository.MailOutboxRepository;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.List;
+
+import static dev.yerokha.cookscorner.util.WaitUtil.waitUntil;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = "mail.outbox.poll-interval-ms=100")
+class MailOutboxTest {
+
+    @Autowired
+    MailService mailService;
+    @Autowired
+    MailOutboxRepository mailOutboxRepository;
+    @MockBean
+    JavaMailSender mailSender;
+
+    @BeforeEach
+    void setUp() {
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void sendEmailConfirmation_DeliveredFromOutbox() throws Exception {
+        mailService.sendEmailConfirmation("outbox@example.com", "http://localhost/confirm?ct=1", "Outbox User");
+
+        verify(mailSender, timeout(5000)).send(any(MimeMessage.class));
+        waitUntil(() -> mailOutboxRepository.count() == 0);
+    }
+
+    @Test
+    void sendEmailConfirmation_RetriedAfterFailure() throws Exception {
+        doThrow(new MailSendException("SMTP unavailable")).when(mailSender).send(any(MimeMessage.class));
+
+        mailService.sendEmailConfirmation("outbox@example.com", "http://localhost/confirm?ct=1", "Outbox User");
+
+        waitUntil(() -> mailOutboxRepository.findAll().stream().anyMatch(message -> message.getAttempts() == 1));
+        List<MailMessage> messages = mailOutboxRepository.findAll();
+        assertEquals(1, messages.size());
+        assertTrue(messages.get(0).getNextAttemptAt().isAfter(messages.get(0).getCreatedAt()),
+                "Failed mail should be scheduled for a later attempt");
+    }
+}
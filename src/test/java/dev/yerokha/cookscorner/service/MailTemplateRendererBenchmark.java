@@ -0,0 +1,62 @@
+package dev.yerokha.cookscorner.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * mvn test-compile exec:java -Dexec.mainClass=dev.yerokha.cookscorner.service.MailTemplateRendererBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MailTemplateRendererBenchmark {
+
+    private MailTemplateRenderer cached;
+    private MailTemplateRenderer uncached;
+    private Map<String, Object> variables;
+
+    @Setup
+    public void setUp() {
+        cached = new MailTemplateRenderer();
+        cached.preload();
+        uncached = new MailTemplateRenderer(false);
+        variables = Map.of(
+                "confirmationUrl", "https://cooks-corner.example.com/v1/auth/confirmation?ct=" + "x".repeat(400),
+                "name", "John Doe");
+    }
+
+    @Benchmark
+    public String renderCached() {
+        return cached.render(MailTemplateRenderer.CONFIRMATION, variables);
+    }
+
+    @Benchmark
+    public String renderUncached() {
+        return uncached.render(MailTemplateRenderer.CONFIRMATION, variables);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MailTemplateRendererBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
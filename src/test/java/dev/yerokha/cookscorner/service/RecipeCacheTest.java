@@ -0,0 +1,147 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.dto.ActionRequest;
+import dev.yerokha.cookscorner.dto.Comment;
+import dev.yerokha.cookscorner.dto.CreateCommentRequest;
+import dev.yerokha.cookscorner.dto.Ingredient;
+import dev.yerokha.cookscorner.dto.Recipe;
+import dev.yerokha.cookscorner.dto.UpdateProfileRequest;
+import dev.yerokha.cookscorner.dto.UpdateRecipeRequest;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class RecipeCacheTest {
+
+    private static final Long RECIPE_ID = 1L;
+    private static final Long AUTHOR_ID = 2L;
+    private static final Long VIEWER_ID = 1L;
+    private static final byte LIKE = 1;
+    private static final byte DISLIKE = 10;
+    private static final byte SAVE = 2;
+    private static final byte REMOVE = 20;
+    private static final byte RECIPE = 2;
+
+    @Autowired
+    RecipeCache recipeCache;
+    @Autowired
+    RecipeService recipeService;
+    @Autowired
+    ActionService actionService;
+    @Autowired
+    CommentService commentService;
+    @Autowired
+    UserService userService;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @MockBean
+    MailService mailService;
+
+    @Test
+    @Order(1)
+    void likeAndBookmark_Evicted() {
+        Recipe before = cachedRecipe();
+
+        actionService.interact(LIKE, RECIPE, RECIPE_ID, VIEWER_ID);
+        assertEquals(before.likes() + 1, cachedRecipe().likes());
+
+        actionService.interact(SAVE, RECIPE, RECIPE_ID, VIEWER_ID);
+        assertEquals(before.bookmarks() + 1, cachedRecipe().bookmarks());
+
+        actionService.interact(DISLIKE, RECIPE, RECIPE_ID, VIEWER_ID);
+        actionService.interact(REMOVE, RECIPE, RECIPE_ID, VIEWER_ID);
+        Recipe after = cachedRecipe();
+        assertEquals(before.likes(), after.likes());
+        assertEquals(before.bookmarks(), after.bookmarks());
+    }
+
+    @Test
+    @Order(2)
+    void interactAll_Evicted() {
+        Recipe before = cachedRecipe();
+
+        actionService.interactAll(List.of(
+                new ActionRequest(LIKE, RECIPE, RECIPE_ID),
+                new ActionRequest(SAVE, RECIPE, RECIPE_ID)), AUTHOR_ID);
+        Recipe after = cachedRecipe();
+        assertEquals(before.likes() + 1, after.likes());
+        assertEquals(before.bookmarks() + 1, after.bookmarks());
+
+        actionService.interactAll(List.of(
+                new ActionRequest(DISLIKE, RECIPE, RECIPE_ID),
+                new ActionRequest(REMOVE, RECIPE, RECIPE_ID)), AUTHOR_ID);
+        after = cachedRecipe();
+        assertEquals(before.likes(), after.likes());
+        assertEquals(before.bookmarks(), after.bookmarks());
+    }
+
+    @Test
+    @Order(3)
+    void commentCreatedAndDeleted_Evicted() {
+        Recipe before = cachedRecipe();
+
+        Comment comment = commentService.createComment(
+                new CreateCommentRequest(RECIPE_ID, "Cached recipes must count me", false), VIEWER_ID);
+        assertEquals(before.comments() + 1, cachedRecipe().comments());
+
+        commentService.deleteComment(comment.commentId(), VIEWER_ID);
+        assertEquals(before.comments(), cachedRecipe().comments());
+    }
+
+    @Test
+    @Order(4)
+    void updateRecipe_Evicted() {
+        cachedRecipe();
+
+        recipeService.updateRecipe(AUTHOR_ID, new UpdateRecipeRequest(RECIPE_ID, "Updated test dish", 15, "hard",
+                "Updated description", "soups", Set.of(new Ingredient("egg", "2", "pcs"))), null);
+
+        Recipe after = cachedRecipe();
+        assertEquals("Updated test dish", after.title());
+        assertEquals("Updated description", after.description());
+        assertEquals(15, after.cookingTimeMinutes());
+    }
+
+    @Test
+    @Order(5)
+    void authorRenamed_Evicted() {
+        cachedRecipe();
+
+        userService.updateUser(new UpdateProfileRequest(AUTHOR_ID, "Renamed Cook", "New bio"), AUTHOR_ID, null);
+
+        assertEquals("Renamed Cook", cachedRecipe().author());
+    }
+
+    @Test
+    @Order(6)
+    void authorDeleted_Evicted() {
+        cachedRecipe();
+
+        userService.setDeleted(AUTHOR_ID, "P@ssw0rd");
+
+        assertEquals("Deleted User", cachedRecipe().author());
+    }
+
+    // reads through the cache and checks the recipe stayed cached, so the next read after a change
+    // is only fresh if that change evicted it; the transaction stands in for the request's open session
+    private Recipe cachedRecipe() {
+        Recipe recipe = new TransactionTemplate(transactionManager)
+                .execute(status -> recipeService.getRecipeById(RECIPE_ID, null));
+        assertNotNull(recipeCache.get(RECIPE_ID));
+        return recipe;
+    }
+}
@@ -0,0 +1,63 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.entity.RecipeEntity;
+import dev.yerokha.cookscorner.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+import java.util.Set;
+
+import static dev.yerokha.cookscorner.util.WaitUtil.waitUntil;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class RecipeSearchIndexTest {
+
+    @Autowired
+    RecipeSearchIndex recipeSearchIndex;
+    @Autowired
+    RecipeRepository recipeRepository;
+    @Autowired
+    RedisTemplate<String, String> redisTemplate;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    RedisMessageListenerContainer listenerContainer;
+    @MockBean
+    MailService mailService;
+
+    @Test
+    void index_BroadcastToOtherInstances() throws Exception {
+        RecipeSearchIndex otherInstance = new RecipeSearchIndex(recipeRepository, redisTemplate, objectMapper,
+                listenerContainer);
+
+        recipeSearchIndex.index(RecipeEntity.builder()
+                .recipeId(555L)
+                .title("Saffron risotto")
+                .description("Creamy rice")
+                .recipeIngredients(Set.of())
+                .build());
+
+        assertEquals(List.of(555L), recipeSearchIndex.search("saffron"));
+        waitUntil(() -> otherInstance.search("saffron").contains(555L));
+    }
+
+    @Test
+    void search_SingleCharacterMatchesWordStarts() {
+        recipeSearchIndex.index(RecipeEntity.builder()
+                .recipeId(556L)
+                .title("Quince jam")
+                .description("Sweet and sticky")
+                .recipeIngredients(Set.of())
+                .build());
+
+        assertEquals(List.of(556L), recipeSearchIndex.search("q"));
+        assertEquals(List.of(), recipeSearchIndex.search("!"));
+    }
+}
@@ -0,0 +1,128 @@
+package dev.yerokha.cookscorner.service;
+
+import dev.yerokha.cookscorner.enums.TrendingSignal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest
+class TrendingRankingTest {
+
+    private static final String RANKING_KEY = "trending:recipes";
+    private static final String EPOCH_KEY = "trending:epoch";
+    private static final long HALF_LIFE_MILLIS = Duration.ofHours(1).toMillis();
+    private static final double LIKE = TrendingSignal.LIKE.getWeight();
+
+    @Autowired
+    RedisTemplate<String, String> redisTemplate;
+    @MockBean
+    MailService mailService;
+
+    TrendingRanking trendingRanking;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.delete(RANKING_KEY);
+        redisTemplate.delete(EPOCH_KEY);
+        trendingRanking = new TrendingRanking(redisTemplate, new SimpleMeterRegistry(), 1, 0.5, 1000);
+    }
+
+    @Test
+    void record_BoostDoublesEveryHalfLife() {
+        startEpochAgo(0);
+        trendingRanking.record(1L, TrendingSignal.LIKE);
+        trendingRanking.flush();
+
+        startEpochAgo(2 * HALF_LIFE_MILLIS);
+        trendingRanking.record(2L, TrendingSignal.LIKE);
+        trendingRanking.flush();
+
+        // a like two half-lives later outweighs the older one four times
+        assertEquals(LIKE, score(1L), 0.01);
+        assertEquals(4 * LIKE, score(2L), 0.01);
+    }
+
+    @Test
+    void recordAndRetract_CancelBeforeFlush() {
+        startEpochAgo(0);
+        trendingRanking.record(1L, TrendingSignal.LIKE);
+        trendingRanking.retract(1L, TrendingSignal.LIKE);
+        trendingRanking.flush();
+
+        assertNull(score(1L));
+    }
+
+    @Test
+    void retract_DecayedSignalDoesNotSinkScore() {
+        startEpochAgo(0);
+        trendingRanking.record(1L, TrendingSignal.LIKE);
+        trendingRanking.flush();
+
+        // three half-lives later the unlike weighs eight times the like it takes back
+        startEpochAgo(3 * HALF_LIFE_MILLIS);
+        trendingRanking.retract(1L, TrendingSignal.LIKE);
+        trendingRanking.flush();
+
+        assertNull(score(1L));
+
+        trendingRanking.record(1L, TrendingSignal.VIEW);
+        trendingRanking.flush();
+        assertEquals(8 * TrendingSignal.VIEW.getWeight(), score(1L), 0.01);
+    }
+
+    @Test
+    void flush_NoSignalLostToConcurrentRecords() throws Exception {
+        // a half-life this long keeps the boost at one for the whole test
+        TrendingRanking flat = new TrendingRanking(redisTemplate, new SimpleMeterRegistry(), 1_000_000, 0.5, 1000);
+        startEpochAgo(0);
+
+        int viewers = 4;
+        int viewsPerViewer = 20_000;
+        ExecutorService executor = Executors.newFixedThreadPool(viewers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < viewers; i++) {
+                results.add(executor.submit(() -> {
+                    for (int view = 0; view < viewsPerViewer; view++) {
+                        flat.record(1L, TrendingSignal.VIEW);
+                    }
+                }));
+            }
+            while (!results.stream().allMatch(Future::isDone)) {
+                flat.flush();
+            }
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        flat.flush();
+
+        assertEquals(viewers * viewsPerViewer * TrendingSignal.VIEW.getWeight(), score(1L), 0.01);
+    }
+
+    // moves the epoch back instead of waiting, which is the same as time passing since the epoch
+    private void startEpochAgo(long millis) {
+        redisTemplate.opsForValue().set(EPOCH_KEY, String.valueOf(System.currentTimeMillis() - millis));
+    }
+
+    private Double score(Long recipeId) {
+        return redisTemplate.opsForZSet().score(RANKING_KEY, recipeId.toString());
+    }
+}
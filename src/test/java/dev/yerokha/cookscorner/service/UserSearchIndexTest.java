@@ -0,0 +1,52 @@
+package dev.yerokha.cookscorner.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.yerokha.cookscorner.entity.UserEntity;
+import dev.yerokha.cookscorner.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+
+import static dev.yerokha.cookscorner.util.WaitUtil.waitUntil;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class UserSearchIndexTest {
+
+    @Autowired
+    UserSearchIndex userSearchIndex;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    RedisTemplate<String, String> redisTemplate;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    RedisMessageListenerContainer listenerContainer;
+    @MockBean
+    MailService mailService;
+
+    @Test
+    void index_BroadcastToOtherInstances() throws Exception {
+        UserSearchIndex otherInstance = new UserSearchIndex(userRepository, redisTemplate, objectMapper,
+                listenerContainer);
+
+        UserEntity user = new UserEntity();
+        user.setUserId(555L);
+        user.setName("Saffron Chef");
+        user.setBio("Risotto every day");
+        userSearchIndex.index(user);
+        userSearchIndex.updateFollowers(555L, 3);
+
+        assertEquals(List.of(555L), userSearchIndex.search("saffron"));
+        waitUntil(() -> otherInstance.search("saffron").contains(555L));
+
+        userSearchIndex.remove(user);
+        waitUntil(() -> otherInstance.search("saffron").isEmpty());
+    }
+}
@@ -0,0 +1,60 @@
+package dev.yerokha.cookscorner.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ViewCountBufferTest {
+
+    @Test
+    void flush_NoViewLostToConcurrentIncrements() throws Exception {
+        AtomicLong flushed = new AtomicLong();
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> deltas = invocation.getArgument(1);
+            deltas.forEach(delta -> flushed.addAndGet((Long) delta[0]));
+            return new int[deltas.size()];
+        });
+        ViewCountBuffer buffer = new ViewCountBuffer(jdbcTemplate, new SimpleMeterRegistry());
+
+        int viewers = 4;
+        int viewsPerViewer = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(viewers);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < viewers; i++) {
+                results.add(executor.submit(() -> {
+                    for (int view = 0; view < viewsPerViewer; view++) {
+                        buffer.incrementRecipeViews((long) view % 3);
+                    }
+                }));
+            }
+            // flushing while views arrive drains adders and drops idle ones under the viewers' feet
+            while (!results.stream().allMatch(Future::isDone)) {
+                buffer.flush();
+            }
+            for (Future<?> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        buffer.flush();
+
+        assertEquals((long) viewers * viewsPerViewer, flushed.get());
+    }
+}
@@ -0,0 +1,109 @@
+package dev.yerokha.cookscorner.util;
+
+import dev.yerokha.cookscorner.enums.ImageVariant;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageVariantUtilTest {
+
+    @Test
+    void createVariants_ScaledToEachVariant() throws IOException {
+        Path original = write(encode(new BufferedImage(4000, 2000, BufferedImage.TYPE_INT_RGB), "png"));
+        Map<ImageVariant, Path> variants = ImageVariantUtil.createVariants(original);
+        try {
+            assertSize(variants.get(ImageVariant.FULL), 1600, 800);
+            assertSize(variants.get(ImageVariant.CARD), 480, 240);
+            assertSize(variants.get(ImageVariant.THUMBNAIL), 160, 80);
+        } finally {
+            ImageVariantUtil.deleteAll(variants);
+            Files.delete(original);
+        }
+    }
+
+    @Test
+    void createVariants_ExifOrientationApplied() throws IOException {
+        // orientation 6: the camera was held upright, the pixels must be rotated 90 degrees clockwise
+        byte[] jpeg = withOrientation(encode(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB), "jpg"), 6);
+        Path original = write(jpeg);
+        Map<ImageVariant, Path> variants = ImageVariantUtil.createVariants(original);
+        try {
+            assertSize(variants.get(ImageVariant.FULL), 200, 300);
+            assertSize(variants.get(ImageVariant.THUMBNAIL), 107, 160);
+        } finally {
+            ImageVariantUtil.deleteAll(variants);
+            Files.delete(original);
+        }
+    }
+
+    @Test
+    void createVariants_NotAnImage() throws IOException {
+        Path original = write("<svg xmlns=\"http://www.w3.org/2000/svg\"/>".getBytes());
+        try {
+            assertTrue(ImageVariantUtil.detectFormat(original).isEmpty());
+            assertThrows(IOException.class, () -> ImageVariantUtil.createVariants(original));
+        } finally {
+            Files.delete(original);
+        }
+    }
+
+    @Test
+    void detectFormat_OnlyServedFormats() throws IOException {
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        for (String format : new String[]{"jpg", "png", "gif"}) {
+            Path path = write(encode(image, format));
+            try {
+                assertEquals(format.equals("gif") ? Optional.empty() : Optional.of(format),
+                        ImageVariantUtil.detectFormat(path));
+            } finally {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static void assertSize(Path path, int width, int height) throws IOException {
+        BufferedImage image = ImageIO.read(path.toFile());
+        assertEquals(width, image.getWidth());
+        assertEquals(height, image.getHeight());
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, format, bytes);
+        return bytes.toByteArray();
+    }
+
+    private static Path write(byte[] content) throws IOException {
+        Path path = Files.createTempFile("image-variant-test-", ".upload");
+        Files.write(path, content);
+        return path;
+    }
+
+    // inserts a big-endian APP1 segment with a single orientation entry right after the JFIF header
+    private static byte[] withOrientation(byte[] jpeg, int orientation) {
+        ByteBuffer exif = ByteBuffer.allocate(2 + 2 + 6 + 8 + 2 + 12 + 4);
+        exif.putShort((short) 0xffe1).putShort((short) (exif.capacity() - 2));
+        exif.put("Exif\0\0".getBytes());
+        exif.put((byte) 'M').put((byte) 'M').putShort((short) 42).putInt(8);
+        exif.putShort((short) 1);
+        exif.putShort((short) 0x0112).putShort((short) 3).putInt(1).putShort((short) orientation).putShort((short) 0);
+        exif.putInt(0);
+
+        int app0End = 4 + ((jpeg[4] & 0xff) << 8 | jpeg[5] & 0xff);
+        ByteBuffer result = ByteBuffer.allocate(jpeg.length + exif.capacity());
+        result.put(jpeg, 0, app0End).put(exif.array()).put(jpeg, app0End, jpeg.length - app0End);
+        return result.array();
+    }
+}
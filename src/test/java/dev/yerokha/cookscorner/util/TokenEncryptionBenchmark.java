@@ -0,0 +1,77 @@
+package dev.yerokha.cookscorner.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Run with ENCRYPTION_KEY set:
+ * mvn test-compile exec:java -Dexec.mainClass=dev.yerokha.cookscorner.util.TokenEncryptionBenchmark -Dexec.classpathScope=test
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenEncryptionBenchmark {
+
+    private static final String ENCRYPTION_ALGORITHM = "AES";
+    private static final String ENCRYPTION_KEY = System.getenv("ENCRYPTION_KEY");
+
+    private String token;
+    private String encryptedToken;
+
+    @Setup
+    public void setUp() {
+        token = "Bearer " + "eyJhbGciOiJSUzI1NiJ9.".repeat(40);
+        encryptedToken = TokenEncryptionUtil.encryptToken(token);
+    }
+
+    @Benchmark
+    public String encryptPerCall() throws Exception {
+        Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(ENCRYPTION_KEY.getBytes(), ENCRYPTION_ALGORITHM));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cipher.doFinal(token.getBytes()));
+    }
+
+    @Benchmark
+    public String encryptCached() {
+        return TokenEncryptionUtil.encryptToken(token);
+    }
+
+    @Benchmark
+    public String decryptPerCall() throws Exception {
+        Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(ENCRYPTION_KEY.getBytes(), ENCRYPTION_ALGORITHM));
+        return new String(cipher.doFinal(Base64.getUrlDecoder().decode(encryptedToken)));
+    }
+
+    @Benchmark
+    public String decryptCached() {
+        return TokenEncryptionUtil.decryptToken(encryptedToken);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TokenEncryptionBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
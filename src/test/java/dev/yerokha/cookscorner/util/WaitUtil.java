@@ -0,0 +1,16 @@
+package dev.yerokha.cookscorner.util;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WaitUtil {
+
+    // polls for up to five seconds and fails the test if the condition never holds
+    public static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 50 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean(), "Condition was not met in time");
+    }
+}
@@ -1,6 +1,6 @@
 create table role
 (
-    role_id   identity,
+    role_id   bigint generated by default as identity,
     authority varchar(255),
     primary key (role_id)
 );
@@ -11,7 +11,7 @@ values (1, 'USER'),
 
 create table category
 (
-    category_id   identity,
+    category_id   bigint generated by default as identity,
     category_name varchar(255),
     primary key (category_id)
 );
@@ -27,17 +27,20 @@ VALUES (1, 'breakfasts'),
 
 create table image
 (
-    image_id   identity,
+    image_id   bigint generated by default as identity,
     hash       varchar(255),
     image_name varchar(255),
     image_url  varchar(255),
+    card_url   varchar(255),
+    thumbnail_url varchar(255),
+    status     varchar(16) default 'READY',
     primary key (image_id)
 );
 
 
 create table users
 (
-    user_id       identity,
+    user_id       bigint generated by default as identity,
     email         varchar(255),
     is_enabled    boolean,
     name          varchar(255),
@@ -47,6 +50,9 @@ create table users
     view_count    bigint,
     image_id      bigint,
     is_deleted    boolean,
+    recipe_count    integer default 0 not null,
+    follower_count  integer default 0 not null,
+    following_count integer default 0 not null,
     primary key (user_id),
     constraint uk_6dotkott2kjsp8vw4d0m25fb7
         unique (email),
@@ -57,19 +63,43 @@ create table users
 
 create table refresh_token
 (
-    token_id   identity,
+    token_id   bigint generated by default as identity,
     expires_at timestamp(6) with time zone,
     is_revoked boolean,
     issued_at  timestamp(6) with time zone,
     token      varchar(1000),
+    token_digest varchar(64),
     user_id    bigint,
     primary key (token_id),
     constraint uk_r4k4edos30bx9neoq81mdvwph
         unique (token),
+    constraint refresh_token_token_digest_key
+        unique (token_digest),
     constraint fkjtx87i0jvq2svedphegvdwcuy
         foreign key (user_id) references users
 );
 
+create index refresh_token_expires_at_idx
+    on refresh_token (expires_at);
+
+create table mail_outbox
+(
+    mail_id         bigint generated by default as identity,
+    recipient       varchar(255),
+    subject         varchar(255),
+    template        varchar(255),
+    variables       varchar(4000),
+    attempts        integer default 0 not null,
+    created_at      timestamp(6) with time zone,
+    next_attempt_at timestamp(6) with time zone,
+    last_error      varchar(1000),
+    is_failed       boolean default false not null,
+    primary key (mail_id)
+);
+
+create index mail_outbox_due_idx
+    on mail_outbox (is_failed, next_attempt_at);
+
 create table user_role_junction
 (
     user_id bigint  not null,
@@ -81,17 +111,6 @@ create table user_role_junction
         foreign key (user_id) references users
 );
 
-create table followers
-(
-    user_id     bigint not null,
-    follower_id bigint not null,
-    primary key (user_id, follower_id),
-    constraint fk9w6mv39vle9f9yacvvkfieai7
-        foreign key (follower_id) references users,
-    constraint fkndvqwh40g1qt4xirl6vp2d6m6
-        foreign key (user_id) references users
-);
-
 create table following
 (
     user_id      bigint not null,
@@ -103,19 +122,25 @@ create table following
         foreign key (user_id) references users
 );
 
-create index image_hash_idx
+create index following_following_id_idx
+    on following (following_id, user_id);
+
+create index users_follower_count_idx
+    on users (follower_count desc);
+
+create unique index image_hash_uk
     on image (hash);
 
 create table ingredient
 (
-    ingredient_id identity,
+    ingredient_id bigint generated by default as identity,
     name          varchar(255),
     primary key (ingredient_id)
 );
 
 create table recipe
 (
-    recipe_id            identity,
+    recipe_id            bigint generated by default as identity,
     cooking_time_minutes integer,
     created_at           timestamp(6),
     updated_at           timestamp(6),
@@ -123,6 +148,9 @@ create table recipe
     difficulty           varchar(255) not null,
     title                varchar(255) not null,
     view_count           bigint,
+    like_count           integer default 0 not null,
+    bookmark_count       integer default 0 not null,
+    comment_count        integer default 0 not null,
     category_id          bigint,
     image_id             bigint,
     user_id              bigint,
@@ -136,6 +164,12 @@ create table recipe
     constraint recipe_difficulty_check
         check (recipe.difficulty in ('EASY', 'MEDIUM', 'HARD'))
 );
+create index recipe_view_count_idx
+    on recipe (view_count desc, recipe_id desc);
+
+create index recipe_category_view_count_idx
+    on recipe (category_id, view_count desc, recipe_id desc);
+
 create table user_recipe_bookmarks
 (
     recipe_id bigint not null,
@@ -149,7 +183,7 @@ create table user_recipe_bookmarks
 
 create table recipe_ingredient
 (
-    recipe_ingredient_id identity,
+    recipe_ingredient_id bigint generated by default as identity,
     amount               double precision,
     measure_unit         varchar(255),
     ingredient_id        bigint,
@@ -174,7 +208,7 @@ create table user_recipe_likes
 
 create table comment
 (
-    comment_id        identity
+    comment_id        bigint generated by default as identity
         primary key,
     created_at        timestamp(6),
     updated_at       timestamp(6),
@@ -191,6 +225,9 @@ create table comment
     is_deleted boolean
 );
 
+create index comment_recipe_idx
+    on comment (recipe_id, comment_id);
+
 create table user_comment_likes
 (
     user_id    bigint not null